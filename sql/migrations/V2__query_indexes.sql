@@ -0,0 +1,13 @@
+-- Historique d'un compte (findByAccountId, pagination par cle (date, id)) :
+-- index couvrant, la requete est servie par un parcours d'index seul
+CREATE INDEX IF NOT EXISTS idx_transaction_account_date
+    ON transaction (accountId, date DESC, id DESC)
+    INCLUDE (amount, type, location);
+
+-- Rapports mensuels et filtres par periode
+CREATE INDEX IF NOT EXISTS idx_transaction_date
+    ON transaction (date);
+
+-- Comptes d'un client (findByClientId, jointure de l'historique client)
+CREATE INDEX IF NOT EXISTS idx_account_client
+    ON account (clientId);
@@ -0,0 +1,73 @@
+-- Partitionnement mensuel de transaction (RANGE sur date).
+-- Les requetes portant un predicat sur date ne lisent que les partitions des mois concernes.
+
+-- Cree la partition du mois contenant month_start si elle n'existe pas (ex : transaction_2025_09)
+CREATE OR REPLACE FUNCTION ensure_transaction_partition(month_start DATE) RETURNS TEXT AS $$
+DECLARE
+    start_date     DATE := date_trunc('month', month_start)::DATE;
+    end_date       DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'transaction_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF transaction FOR VALUES FROM (%L) TO (%L)',
+            partition_name, start_date, end_date);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- L'ancienne table est renommee ; ses index et sa cle primaire liberent leurs noms
+DROP INDEX IF EXISTS idx_transaction_account_date;
+DROP INDEX IF EXISTS idx_transaction_date;
+ALTER TABLE transaction RENAME TO transaction_unpartitioned;
+ALTER TABLE transaction_unpartitioned RENAME CONSTRAINT transaction_pkey TO transaction_unpartitioned_pkey;
+ALTER SEQUENCE transaction_id_seq OWNED BY NONE;
+
+-- La cle de partitionnement doit faire partie de la cle primaire
+CREATE TABLE transaction (
+                             id INTEGER NOT NULL DEFAULT nextval('transaction_id_seq'),
+                             date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                             amount DECIMAL(15, 2) NOT NULL CHECK (amount > 0),
+                             type VARCHAR(20) NOT NULL CHECK (type IN ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER')),
+                             location VARCHAR(100),
+                             accountId INTEGER NOT NULL,
+
+                             CONSTRAINT transaction_pkey PRIMARY KEY (id, date),
+                             CONSTRAINT fk_transaction_account FOREIGN KEY (accountId)
+                                 REFERENCES account(id)
+                                 ON DELETE CASCADE
+                                 ON UPDATE CASCADE
+) PARTITION BY RANGE (date);
+
+ALTER SEQUENCE transaction_id_seq OWNED BY transaction.id;
+
+-- Filet de securite pour les dates sans partition (la maintenance cree les mois a venir a l'avance)
+CREATE TABLE transaction_default PARTITION OF transaction DEFAULT;
+
+-- Une partition par mois, du plus ancien mois present jusqu'a trois mois apres le mois courant
+DO $$
+DECLARE
+    first_month DATE;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::DATE;
+    cur_month   DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(date), now()))::DATE INTO first_month FROM transaction_unpartitioned;
+    cur_month := first_month;
+    WHILE cur_month <= last_month LOOP
+        PERFORM ensure_transaction_partition(cur_month);
+        cur_month := (cur_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+INSERT INTO transaction (id, date, amount, type, location, accountId)
+SELECT id, date, amount, type, location, accountId
+FROM transaction_unpartitioned;
+
+DROP TABLE transaction_unpartitioned;
+
+-- Index crees sur la table parente : propages a chaque partition, y compris les futures
+CREATE INDEX idx_transaction_account_date
+    ON transaction (accountId, date DESC, id DESC)
+    INCLUDE (amount, type, location);
+
+CREATE INDEX idx_transaction_date
+    ON transaction (date);
@@ -0,0 +1,22 @@
+-- Resume d'activite par compte, tenu a jour par TransactionDAO dans la meme transaction SQL
+-- que chaque insertion, modification ou suppression de transaction.
+CREATE TABLE account_activity (
+                                  accountId INTEGER PRIMARY KEY,
+                                  transactionCount BIGINT NOT NULL DEFAULT 0,
+                                  totalAmount DECIMAL(19, 2) NOT NULL DEFAULT 0.00,
+                                  lastActivity TIMESTAMP,
+
+                                  CONSTRAINT fk_account_activity_account FOREIGN KEY (accountId)
+                                      REFERENCES account(id)
+                                      ON DELETE CASCADE
+                                      ON UPDATE CASCADE
+);
+
+INSERT INTO account_activity (accountId, transactionCount, totalAmount, lastActivity)
+SELECT a.id, COUNT(t.id), COALESCE(SUM(t.amount), 0), MAX(t.date)
+FROM account a
+LEFT JOIN transaction t ON t.accountId = a.id
+GROUP BY a.id;
+
+-- Detection des comptes inactifs
+CREATE INDEX idx_account_activity_last ON account_activity (lastActivity);
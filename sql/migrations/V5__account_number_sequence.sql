@@ -0,0 +1,15 @@
+-- Generation des numeros CPT-XXXXX par blocs (hi/lo) :
+-- chaque nextval reserve 50 numeros consecutifs, distribues ensuite en memoire par l'application.
+-- L'increment doit rester egal a AccountNumberGenerator.BLOCK_SIZE.
+CREATE SEQUENCE account_number_seq
+    INCREMENT BY 50
+    MINVALUE 10000
+    MAXVALUE 99999
+    NO CYCLE;
+
+-- Premier bloc juste apres le plus grand numero deja attribue
+SELECT setval('account_number_seq',
+              COALESCE((SELECT MAX(CAST(substring(number FROM 5) AS INTEGER)) + 1
+                        FROM account
+                        WHERE number ~ '^CPT-[0-9]{5}$'), 10000),
+              false);
@@ -0,0 +1,21 @@
+-- Compte de contrepartie des virements : chaque virement produit deux lignes liees,
+-- un debit TRANSFER sur l'emetteur et un credit DEPOSIT sur le beneficiaire.
+ALTER TABLE transaction
+    ADD COLUMN counterpartyId INTEGER
+        CONSTRAINT fk_transaction_counterparty REFERENCES account(id)
+            ON DELETE SET NULL
+            ON UPDATE CASCADE;
+
+-- L'historique d'un compte lit aussi counterpartyId : l'index couvrant doit l'inclure
+-- pour que la requete reste servie par un parcours d'index seul
+DROP INDEX IF EXISTS idx_transaction_account_date;
+
+CREATE INDEX idx_transaction_account_date
+    ON transaction (accountId, date DESC, id DESC)
+    INCLUDE (amount, type, location, counterpartyId);
+
+-- Suppression d'un compte (ON DELETE SET NULL) : les lignes qui le referencent sont trouvees
+-- par index au lieu d'un parcours de toutes les partitions
+CREATE INDEX idx_transaction_counterparty
+    ON transaction (counterpartyId)
+    WHERE counterpartyId IS NOT NULL;
@@ -0,0 +1,17 @@
+-- Dictionnaire des lieux : forme normalisee (sans espaces autour, en minuscules) -> identifiant dense.
+-- Les identifiants sont attribues par la base (LocationDictionaryDAO.allocate : MAX + 1 sous verrou,
+-- denses et uniques entre instances) et restent stables d'une execution a l'autre ;
+-- displayName garde la premiere orthographe rencontree.
+CREATE TABLE location_dictionary (
+    id          INTEGER      PRIMARY KEY,
+    name        VARCHAR(100) NOT NULL UNIQUE,
+    displayName VARCHAR(100) NOT NULL
+);
+
+-- Lieux deja presents, numerotes a partir de 0 dans l'ordre alphabetique
+INSERT INTO location_dictionary (id, name, displayName)
+SELECT ROW_NUMBER() OVER (ORDER BY name) - 1, name, displayName
+FROM (SELECT lower(btrim(location)) AS name, MIN(btrim(location)) AS displayName
+      FROM transaction
+      WHERE location IS NOT NULL
+      GROUP BY lower(btrim(location))) AS locations;
@@ -0,0 +1,155 @@
+package analytics;
+
+import java.util.Arrays;
+
+// Index des montants sur un jeu en colonnes : centimes tries par ordre croissant avec l'indice de
+// chaque ligne. Une plage de montants ou "tout ce qui depasse le seuil" est une recherche dichotomique
+// suivie d'une copie contigue ; les K plus gros montants sont les K dernieres positions.
+public final class AmountIndex {
+
+    private final long[] sortedCents;
+    private final int[] rows;
+
+    private AmountIndex(long[] sortedCents, int[] rows) {
+        this.sortedCents = sortedCents;
+        this.rows = rows;
+    }
+
+    public static AmountIndex of(TransactionColumns columns) {
+        int[] order = RowSort.sortedRows(columns.size(), columns::amountCents);
+        long[] cents = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            cents[i] = columns.amountCents(order[i]);
+        }
+        return new AmountIndex(cents, order);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    // ========== RANGE QUERIES ==========
+    // Lignes dont le montant est entre min et max inclus, par montant croissant
+    public int[] rowsBetween(double minAmount, double maxAmount) {
+        int from = lowerBound(TransactionColumns.ceilCents(minAmount));
+        int to = upperBound(TransactionColumns.floorCents(maxAmount));
+        return from < to ? Arrays.copyOfRange(rows, from, to) : new int[0];
+    }
+
+    // Lignes dont le montant depasse strictement le seuil, par montant decroissant
+    public int[] rowsAbove(double threshold) {
+        return descendingFrom(upperBound(TransactionColumns.floorCents(threshold)), rows.length);
+    }
+
+    public int countAbove(double threshold) {
+        return rows.length - upperBound(TransactionColumns.floorCents(threshold));
+    }
+
+    // ========== TOP K ==========
+    // Les k plus gros montants, par montant decroissant
+    public int[] top(int k) {
+        int count = Math.min(Math.max(k, 0), rows.length);
+        return descendingFrom(rows.length - count, rows.length);
+    }
+
+    // Top K sur une selection quelconque (sans index) : tas minimal de k lignes, O(n log k)
+    public static int[] top(TransactionColumns columns, int[] selection, int k) {
+        int capacity = Math.min(Math.max(k, 0), selection.length);
+        int[] heap = new int[capacity];
+        int size = 0;
+        for (int row : selection) {
+            if (size < capacity) {
+                heap[size] = row;
+                siftUp(columns, heap, size++);
+            } else if (capacity > 0 && columns.amountCents(row) > columns.amountCents(heap[0])) {
+                heap[0] = row;
+                siftDown(columns, heap, size);
+            }
+        }
+
+        // Vidage du tas : du plus petit au plus grand, range de la fin vers le debut
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(columns, heap, size);
+        }
+        return result;
+    }
+
+    // ========== HELPER METHODS ==========
+    private int[] descendingFrom(int from, int to) {
+        int[] result = new int[Math.max(to - from, 0)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = rows[to - 1 - i];
+        }
+        return result;
+    }
+
+    // Premiere position dont le montant est >= cents
+    private int lowerBound(long cents) {
+        int low = 0;
+        int high = sortedCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedCents[mid] < cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Premiere position dont le montant est > cents
+    private int upperBound(long cents) {
+        int low = 0;
+        int high = sortedCents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedCents[mid] <= cents) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void siftUp(TransactionColumns columns, int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (columns.amountCents(heap[index]) >= columns.amountCents(heap[parent])) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(TransactionColumns columns, int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && columns.amountCents(heap[left]) < columns.amountCents(heap[smallest])) {
+                smallest = left;
+            }
+            if (right < size && columns.amountCents(heap[right]) < columns.amountCents(heap[smallest])) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+}
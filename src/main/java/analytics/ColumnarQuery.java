@@ -0,0 +1,54 @@
+package analytics;
+
+import entity.transactions.TransactionQuery;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// Execution d'une TransactionQuery sur un jeu en colonnes : tous les criteres sont evalues dans
+// une seule passe sur les lignes, sans liste intermediaire par critere ni objet par ligne.
+public final class ColumnarQuery {
+
+    private ColumnarQuery() {
+        throw new UnsupportedOperationException("Impossible d'instancier une classe utilitaire!");
+    }
+
+    // ========== EXECUTE ==========
+    // Indices des lignes retenues, tries et limites selon la requete
+    public static int[] execute(TransactionColumns columns, TransactionQuery query) {
+        long minCents = query.minAmount() != null ? TransactionColumns.ceilCents(query.minAmount()) : Long.MIN_VALUE;
+        long maxCents = query.maxAmount() != null ? TransactionColumns.floorCents(query.maxAmount()) : Long.MAX_VALUE;
+        long startMillis = query.start() != null ? TransactionColumns.toEpochMillis(query.start()) : Long.MIN_VALUE;
+        long endMillis = query.end() != null ? TransactionColumns.toEpochMillis(query.end()) : Long.MAX_VALUE;
+        int typeOrdinal = query.type() != null ? query.type().ordinal() : -1;
+        boolean anyAccount = query.accountId() == null;
+        long accountId = anyAccount ? 0 : query.accountId();
+        boolean anyLocation = query.location() == null || query.location().isBlank();
+        IntPredicate location = anyLocation ? id -> true : columns.dictionary().containing(query.location());
+
+        int[] rows = new int[columns.size()];
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            long cents = columns.amountCents(row);
+            long millis = columns.epochMillis(row);
+            if (cents >= minCents && cents <= maxCents
+                    && millis >= startMillis && millis <= endMillis
+                    && (typeOrdinal < 0 || columns.typeOrdinal(row) == typeOrdinal)
+                    && (anyAccount || columns.accountId(row) == accountId)
+                    && (anyLocation || location.test(columns.locationId(row)))) {
+                rows[count++] = row;
+            }
+        }
+        int[] selected = Arrays.copyOf(rows, count);
+
+        return switch (query.order()) {
+            case NONE -> query.hasLimit() && query.limit() < selected.length
+                    ? Arrays.copyOf(selected, query.limit())
+                    : selected;
+            case DATE_ASC -> RowSort.sortAndLimit(selected, columns::epochMillis, false, query.limit());
+            case DATE_DESC -> RowSort.sortAndLimit(selected, columns::epochMillis, true, query.limit());
+            case AMOUNT_ASC -> RowSort.sortAndLimit(selected, columns::amountCents, false, query.limit());
+            case AMOUNT_DESC -> RowSort.sortAndLimit(selected, columns::amountCents, true, query.limit());
+        };
+    }
+}
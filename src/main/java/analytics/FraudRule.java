@@ -0,0 +1,67 @@
+package analytics;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
+
+// Regle de detection evaluee par le RuleEngine. bind prepare une evaluation et retourne le traitement
+// d'une ligne ; la regle signale les lignes suspectes par leur reference via flag (la ligne courante ou,
+// pour une regle a etat comme la vitesse, des lignes deja vues).
+// Les lignes sont presentees une seule fois chacune, dans l'ordre chronologique (croissant ou decroissant).
+// Le travail et la memoire par ligne sont constants : une regle ne garde pas les lignes deja vues.
+public interface FraudRule {
+
+    String name();
+
+    Consumer<RuleRow> bind(LongConsumer flag);
+
+    // ========== BUILT-IN RULES ==========
+    static FraudRule highAmount(String name, double threshold) {
+        long thresholdCents = TransactionColumns.floorCents(threshold);
+        return of(name, flag -> row -> {
+            if (row.amountCents() > thresholdCents) {
+                flag.accept(row.ref());
+            }
+        });
+    }
+
+    // Lieu ne contenant pas usualLocation ; le test de sous-chaine est fait une fois par lieu du dictionnaire
+    static FraudRule unusualLocation(String name, String usualLocation) {
+        return of(name, flag -> {
+            IntPredicate usual = LocationDictionary.getInstance().containing(usualLocation);
+            return row -> {
+                if (!usual.test(row.locationId())) {
+                    flag.accept(row.ref());
+                }
+            };
+        });
+    }
+
+    // Plus de maxCount transactions d'un meme compte dans la fenetre ; un detecteur neuf par evaluation
+    static FraudRule velocity(String name, int maxCount, Duration window) {
+        return of(name, flag -> {
+            VelocityDetector detector = new VelocityDetector(maxCount, window, flag);
+            return row -> detector.accept(row.accountId(), row.epochMillis(), row.ref());
+        });
+    }
+
+    static FraudRule of(String name, Binder binder) {
+        return new FraudRule() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Consumer<RuleRow> bind(LongConsumer flag) {
+                return binder.bind(flag);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Binder {
+        Consumer<RuleRow> bind(LongConsumer flag);
+    }
+}
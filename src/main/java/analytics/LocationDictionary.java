@@ -0,0 +1,141 @@
+package analytics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+// Dictionnaire des lieux, partage par toute la JVM : chaque forme normalisee (sans espaces autour,
+// en minuscules) recoit un identifiant entier dense. "Paris" et " paris " ont le meme identifiant.
+// Les filtres et regroupements par lieu comparent alors des entiers, et chaque libelle lu en base
+// n'est garde qu'en un exemplaire (intern). Les identifiants sont attribues par la base
+// (location_dictionary, via le Store attache) : deux JVM donnent le meme identifiant au meme lieu.
+// Sans Store, ou si la base est indisponible, les nouveaux lieux recoivent un identifiant local a la JVM.
+public final class LocationDictionary {
+
+    private static final LocationDictionary INSTANCE = new LocationDictionary();
+
+    // Chemin rapide sans verrou, cles normalisees uniquement : une entree par lieu, pas par orthographe
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<String, String> interned = new ConcurrentHashMap<>();
+
+    // Ecritures sous verrou : identifiant -> forme normalisee et libelle d'affichage
+    private final List<String> names = new ArrayList<>();
+    private final List<String> displayNames = new ArrayList<>();
+    private Store store;
+
+    private LocationDictionary() {
+    }
+
+    public static LocationDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    public static String normalize(String location) {
+        return location == null ? "" : location.strip().toLowerCase(Locale.ROOT);
+    }
+
+    // ========== LOOKUP ==========
+    public int idOf(String location) {
+        String name = normalize(location);
+        Integer id = ids.get(name);
+        return id != null ? id : assign(name, location == null ? "" : location.strip());
+    }
+
+    private synchronized int assign(String name, String displayName) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        if (store != null) {
+            try {
+                // Entrees creees depuis par d'autres JVM comprises : les identifiants restent denses
+                for (Entry entry : store.allocate(name, displayName, names.size())) {
+                    if (entry.id() >= names.size()) {
+                        register(entry.id(), entry.name(), entry.displayName());
+                    }
+                }
+                id = ids.get(name);
+                if (id != null) {
+                    return id;
+                }
+                throw new SQLException("lieu absent apres attribution : " + name);
+            } catch (SQLException | IllegalStateException e) {
+                // Plus de persistance pour cette execution : un identifiant local ne doit pas croiser ceux de la base
+                System.err.println("Dictionnaire des lieux local a cette execution : " + e.getMessage());
+                store = null;
+            }
+        }
+
+        register(names.size(), name, displayName);
+        return ids.get(name);
+    }
+
+    // Exemplaire unique du libelle : les lignes d'une meme ville partagent la meme String.
+    // Une seule orthographe est gardee par lieu ; les autres variantes sont retournees telles quelles.
+    public String intern(String location) {
+        if (location == null) {
+            return null;
+        }
+        String canonical = interned.putIfAbsent(normalize(location), location);
+        return canonical != null && canonical.equals(location) ? canonical : location;
+    }
+
+    public synchronized String name(int id) {
+        return names.get(id);
+    }
+
+    // Premiere orthographe rencontree, pour l'affichage
+    public synchronized String displayName(int id) {
+        return displayNames.get(id);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    // ========== MATCHING ==========
+    // Predicat sur les identifiants : "le lieu contient la sous-chaine" (casse ignoree).
+    // Le test de sous-chaine est fait une fois par lieu connu ; un lieu ajoute ensuite est teste a la volee.
+    public IntPredicate containing(String substring) {
+        String needle = normalize(substring);
+        boolean[] matches;
+        synchronized (this) {
+            matches = new boolean[names.size()];
+            for (int id = 0; id < matches.length; id++) {
+                matches[id] = names.get(id).contains(needle);
+            }
+        }
+        return id -> id < matches.length ? matches[id] : name(id).contains(needle);
+    }
+
+    // ========== PERSISTENCE ==========
+    // Entrees lues en base (au demarrage ou lors d'une attribution) : identifiants denses dans l'ordre
+    public synchronized void register(int id, String name, String displayName) {
+        if (id != names.size() || ids.containsKey(name)) {
+            throw new IllegalStateException("Entree du dictionnaire des lieux non dense : " + id + " -> " + name);
+        }
+        names.add(name);
+        displayNames.add(displayName);
+        ids.put(name, id);
+    }
+
+    // Les nouveaux lieux sont ensuite attribues par le store ; a attacher apres le chargement des entrees
+    public synchronized void attach(Store store) {
+        this.store = store;
+    }
+
+    // Attribution des identifiants par la base
+    @FunctionalInterface
+    public interface Store {
+        // Garantit une entree pour name, puis retourne toutes les entrees d'identifiant >= fromId, par id croissant
+        List<Entry> allocate(String name, String displayName, int fromId) throws SQLException;
+    }
+
+    public record Entry(int id, String name, String displayName) {
+    }
+}
@@ -0,0 +1,95 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Recherche de lieu par sous-chaine sur un jeu en colonnes : un index de trigrammes sur les lieux
+// distincts donne les lieux candidats, puis la liste des lignes de chaque lieu donne les lignes.
+// Seules les lignes des lieux retenus sont touchees.
+public final class LocationIndex {
+
+    private final TrigramIndex<String> names;
+    // rowsByLocation[id] : lignes du lieu id, par indice croissant
+    private final int[][] rowsByLocation;
+
+    private LocationIndex(TrigramIndex<String> names, int[][] rowsByLocation) {
+        this.names = names;
+        this.rowsByLocation = rowsByLocation;
+    }
+
+    public static LocationIndex of(TransactionColumns columns) {
+        int locationCount = columns.locationCount();
+        List<String> locations = new ArrayList<>(locationCount);
+        for (int id = 0; id < locationCount; id++) {
+            locations.add(columns.locationName(id));
+        }
+
+        int[] counts = new int[locationCount];
+        for (int row = 0; row < columns.size(); row++) {
+            counts[columns.locationId(row)]++;
+        }
+        int[][] rowsByLocation = new int[locationCount][];
+        for (int id = 0; id < locationCount; id++) {
+            rowsByLocation[id] = new int[counts[id]];
+        }
+        int[] filled = new int[locationCount];
+        for (int row = 0; row < columns.size(); row++) {
+            int id = columns.locationId(row);
+            rowsByLocation[id][filled[id]++] = row;
+        }
+
+        return new LocationIndex(TrigramIndex.of(locations, name -> name), rowsByLocation);
+    }
+
+    // ========== SEARCH ==========
+    // Identifiants des lieux (formes normalisees) contenant la sous-chaine
+    public int[] locationIdsContaining(String substring) {
+        return names.matchingIds(LocationDictionary.normalize(substring));
+    }
+
+    // Lignes dont le lieu contient la sous-chaine, par indice croissant
+    public int[] rowsContaining(String substring) {
+        int[] ids = locationIdsContaining(substring);
+        boolean[] selected = new boolean[rowsByLocation.length];
+        for (int id : ids) {
+            selected[id] = true;
+        }
+        return collectRows(selected);
+    }
+
+    // Lignes dont le lieu ne contient pas la sous-chaine (lieux inhabituels)
+    public int[] rowsNotContaining(String substring) {
+        boolean[] selected = new boolean[rowsByLocation.length];
+        Arrays.fill(selected, true);
+        for (int id : locationIdsContaining(substring)) {
+            selected[id] = false;
+        }
+        return collectRows(selected);
+    }
+
+    public int[] rowsAt(int locationId) {
+        return rowsByLocation[locationId].clone();
+    }
+
+    // ========== HELPER METHODS ==========
+    private int[] collectRows(boolean[] selected) {
+        int count = 0;
+        for (int id = 0; id < selected.length; id++) {
+            if (selected[id]) {
+                count += rowsByLocation[id].length;
+            }
+        }
+
+        int[] rows = new int[count];
+        int position = 0;
+        for (int id = 0; id < selected.length; id++) {
+            if (selected[id]) {
+                System.arraycopy(rowsByLocation[id], 0, rows, position, rowsByLocation[id].length);
+                position += rowsByLocation[id].length;
+            }
+        }
+        Arrays.sort(rows);
+        return rows;
+    }
+}
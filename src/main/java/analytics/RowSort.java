@@ -0,0 +1,115 @@
+package analytics;
+
+import java.util.function.IntToLongFunction;
+
+// Tri des indices de ligne d'un jeu en colonnes selon une cle primitive, sans objet par ligne
+final class RowSort {
+
+    private RowSort() {
+        throw new UnsupportedOperationException("Impossible d'instancier une classe utilitaire!");
+    }
+
+    // Indices 0..size-1 tries par cle croissante ; tri fusion stable (a cle egale, ordre des lignes)
+    static int[] sortedRows(int size, IntToLongFunction key) {
+        int[] order = new int[size];
+        boolean sorted = true;
+        for (int row = 0; row < size; row++) {
+            order[row] = row;
+            if (row > 0 && key.applyAsLong(row) < key.applyAsLong(row - 1)) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            mergeSort(order, key);
+        }
+        return order;
+    }
+
+    // Trie la selection par cle (croissante ou decroissante) et garde au plus limit lignes (0 = toutes).
+    // Avec une limite, un tas de limit lignes evite de trier toute la selection.
+    static int[] sortAndLimit(int[] rows, IntToLongFunction key, boolean descending, int limit) {
+        IntToLongFunction sortKey = descending ? row -> -key.applyAsLong(row) : key;
+        if (limit > 0 && limit < rows.length) {
+            return smallest(rows, sortKey, limit);
+        }
+        int[] sorted = rows.clone();
+        mergeSort(sorted, sortKey);
+        return sorted;
+    }
+
+    // Les k lignes de plus petite cle, triees : tas maximal de k lignes, O(n log k)
+    private static int[] smallest(int[] rows, IntToLongFunction key, int k) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int row : rows) {
+            if (size < k) {
+                heap[size] = row;
+                int index = size++;
+                while (index > 0 && key.applyAsLong(heap[index]) > key.applyAsLong(heap[(index - 1) >>> 1])) {
+                    swap(heap, index, (index - 1) >>> 1);
+                    index = (index - 1) >>> 1;
+                }
+            } else if (key.applyAsLong(row) < key.applyAsLong(heap[0])) {
+                heap[0] = row;
+                siftDown(heap, size, key);
+            }
+        }
+
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, key);
+        }
+        return result;
+    }
+
+    private static void siftDown(int[] heap, int size, IntToLongFunction key) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && key.applyAsLong(heap[left]) > key.applyAsLong(heap[largest])) {
+                largest = left;
+            }
+            if (right < size && key.applyAsLong(heap[right]) > key.applyAsLong(heap[largest])) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(heap, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private static void mergeSort(int[] order, IntToLongFunction key) {
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int low = 0; low < order.length - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, order.length);
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] = key.applyAsLong(order[j]) < key.applyAsLong(order[i]) ? order[j++] : order[i++];
+                }
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = order[j++];
+                }
+                System.arraycopy(buffer, low, order, low, high - low);
+            }
+        }
+    }
+}
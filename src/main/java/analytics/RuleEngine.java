@@ -0,0 +1,111 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Evalue toutes les regles en une seule passe sur des lignes presentees dans l'ordre chronologique.
+// Chaque ligne signalee recoit un masque de bits (bit i = regle i declenchee) : la fusion des resultats
+// est un OU sur un long, et ajouter une regle n'ajoute ni passe ni ensemble intermediaire.
+public final class RuleEngine {
+
+    public static final int MAX_RULES = Long.SIZE;
+
+    private final List<FraudRule> rules;
+    private final List<String> ruleNames;
+
+    public RuleEngine(List<FraudRule> rules) {
+        if (rules.isEmpty() || rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("Le nombre de regles doit etre compris entre 1 et " + MAX_RULES);
+        }
+        this.rules = List.copyOf(rules);
+        this.ruleNames = this.rules.stream().map(FraudRule::name).toList();
+    }
+
+    // ========== EVALUATE (COLUMNS) ==========
+    // Jeu deja en memoire : un masque par ligne, les lignes parcourues triees par date
+    public RuleHits evaluate(TransactionColumns columns) {
+        long[] masks = new long[columns.size()];
+        List<Consumer<RuleRow>> evaluators = bind((ruleIndex, ref) -> masks[(int) ref] |= 1L << ruleIndex);
+
+        ColumnRow row = new ColumnRow(columns);
+        for (int index : RowSort.sortedRows(columns.size(), columns::epochMillis)) {
+            row.row = index;
+            for (Consumer<RuleRow> evaluator : evaluators) {
+                evaluator.accept(row);
+            }
+        }
+        return new RuleHits(ruleNames, masks);
+    }
+
+    // ========== SCAN (CURSOR) ==========
+    // Lignes lues une a une sur un curseur trie par date : memoire proportionnelle aux comptes et aux
+    // lignes signalees, pas au nombre de lignes parcourues
+    public RuleScan scan() {
+        return new RuleScan(this);
+    }
+
+    List<Consumer<RuleRow>> bind(RuleFlag flag) {
+        List<Consumer<RuleRow>> evaluators = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            int ruleIndex = i;
+            LongConsumer ruleFlag = ref -> flag.flag(ruleIndex, ref);
+            evaluators.add(rules.get(i).bind(ruleFlag));
+        }
+        return evaluators;
+    }
+
+    List<String> ruleNames() {
+        return ruleNames;
+    }
+
+    // Noms des regles d'un masque, dans l'ordre des regles
+    static List<String> namesOf(List<String> ruleNames, long mask) {
+        List<String> fired = new ArrayList<>(Long.bitCount(mask));
+        for (long m = mask; m != 0; m &= m - 1) {
+            fired.add(ruleNames.get(Long.numberOfTrailingZeros(m)));
+        }
+        return fired;
+    }
+
+    @FunctionalInterface
+    interface RuleFlag {
+        void flag(int ruleIndex, long ref);
+    }
+
+    // Curseur reutilise sur les lignes d'un jeu en colonnes : pas d'objet par ligne
+    private static final class ColumnRow implements RuleRow {
+        private final TransactionColumns columns;
+        private int row;
+
+        private ColumnRow(TransactionColumns columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public long ref() {
+            return row;
+        }
+
+        @Override
+        public long epochMillis() {
+            return columns.epochMillis(row);
+        }
+
+        @Override
+        public long amountCents() {
+            return columns.amountCents(row);
+        }
+
+        @Override
+        public int locationId() {
+            return columns.locationId(row);
+        }
+
+        @Override
+        public long accountId() {
+            return columns.accountId(row);
+        }
+    }
+}
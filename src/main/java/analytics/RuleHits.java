@@ -0,0 +1,68 @@
+package analytics;
+
+import java.util.List;
+
+// Resultat d'un RuleEngine : un masque de regles declenchees par ligne du jeu en colonnes
+public final class RuleHits {
+
+    private final List<String> ruleNames;
+    private final long[] masks;
+
+    RuleHits(List<String> ruleNames, long[] masks) {
+        this.ruleNames = ruleNames;
+        this.masks = masks;
+    }
+
+    // ========== ACCESSORS ==========
+    public List<String> ruleNames() {
+        return ruleNames;
+    }
+
+    public long mask(int row) {
+        return masks[row];
+    }
+
+    public boolean isFlagged(int row) {
+        return masks[row] != 0;
+    }
+
+    public boolean fired(int row, int ruleIndex) {
+        return (masks[row] & (1L << ruleIndex)) != 0;
+    }
+
+    // Noms des regles declenchees par la ligne, dans l'ordre des regles
+    public List<String> rulesOf(int row) {
+        return RuleEngine.namesOf(ruleNames, masks[row]);
+    }
+
+    // ========== FLAGGED ROWS ==========
+    // Lignes declenchant au moins une regle, par indice croissant
+    public int[] flaggedRows() {
+        int count = 0;
+        for (long mask : masks) {
+            if (mask != 0) {
+                count++;
+            }
+        }
+
+        int[] rows = new int[count];
+        int filled = 0;
+        for (int row = 0; row < masks.length; row++) {
+            if (masks[row] != 0) {
+                rows[filled++] = row;
+            }
+        }
+        return rows;
+    }
+
+    // Nombre de lignes declenchant chaque regle, dans l'ordre des regles
+    public int[] countByRule() {
+        int[] counts = new int[ruleNames.size()];
+        for (long mask : masks) {
+            for (long m = mask; m != 0; m &= m - 1) {
+                counts[Long.numberOfTrailingZeros(m)]++;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,16 @@
+package analytics;
+
+// Ligne presentee aux regles : une ligne d'un jeu en colonnes, ou une transaction lue sur un curseur.
+// ref() designe la ligne aupres de l'appelant (indice de ligne, ou identifiant de transaction).
+public interface RuleRow {
+
+    long ref();
+
+    long epochMillis();
+
+    long amountCents();
+
+    int locationId();
+
+    long accountId();
+}
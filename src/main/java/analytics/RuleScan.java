@@ -0,0 +1,89 @@
+package analytics;
+
+import entity.transactions.Transaction;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Evaluation des regles sur des transactions lues une a une (curseur), dans l'ordre chronologique.
+// Seules les transactions signalees sont retenues, par identifiant avec leur masque de regles :
+// l'appelant relit ensuite ces lignes en une requete.
+public final class RuleScan implements Consumer<Transaction> {
+
+    private final List<String> ruleNames;
+    private final List<Consumer<RuleRow>> evaluators;
+    private final Map<Long, Long> masks = new HashMap<>();
+    private final TransactionRow row = new TransactionRow();
+    private final LocationDictionary dictionary = LocationDictionary.getInstance();
+    private long scanned;
+
+    RuleScan(RuleEngine engine) {
+        this.ruleNames = engine.ruleNames();
+        this.evaluators = engine.bind((ruleIndex, id) -> masks.merge(id, 1L << ruleIndex, (a, b) -> a | b));
+    }
+
+    // ========== ACCEPT ==========
+    @Override
+    public void accept(Transaction transaction) {
+        row.id = transaction.id();
+        row.epochMillis = TransactionColumns.toEpochMillis(transaction.date());
+        row.amountCents = TransactionColumns.toCents(transaction.amount());
+        row.locationId = dictionary.idOf(transaction.location());
+        row.accountId = transaction.accountId();
+        for (Consumer<RuleRow> evaluator : evaluators) {
+            evaluator.accept(row);
+        }
+        scanned++;
+    }
+
+    // ========== RESULTS ==========
+    // Identifiant de transaction signalee -> masque des regles declenchees
+    public Map<Long, Long> flagged() {
+        return Collections.unmodifiableMap(masks);
+    }
+
+    public List<String> rulesOf(long mask) {
+        return RuleEngine.namesOf(ruleNames, mask);
+    }
+
+    public long getScannedCount() {
+        return scanned;
+    }
+
+    // Ligne courante, reutilisee d'une transaction a l'autre
+    private static final class TransactionRow implements RuleRow {
+        private long id;
+        private long epochMillis;
+        private long amountCents;
+        private int locationId;
+        private long accountId;
+
+        @Override
+        public long ref() {
+            return id;
+        }
+
+        @Override
+        public long epochMillis() {
+            return epochMillis;
+        }
+
+        @Override
+        public long amountCents() {
+            return amountCents;
+        }
+
+        @Override
+        public int locationId() {
+            return locationId;
+        }
+
+        @Override
+        public long accountId() {
+            return accountId;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Index temporel sur un jeu en colonnes : lignes triees par date, avec les bornes de chaque jour
+// et de chaque mois calculees a la construction. Une plage de dates est une recherche dichotomique
+// suivie d'une copie contigue ; un jour ou un mois est une simple lecture des bornes.
+public final class TimeIndex {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final long[] sortedMillis;
+    private final int[] rows;
+    private final long firstDay;
+    // dayOffsets[d] : premiere position du jour firstDay + d ; la derniere case vaut size
+    private final int[] dayOffsets;
+    private final YearMonth firstMonth;
+    private final int[] monthOffsets;
+
+    private TimeIndex(long[] sortedMillis, int[] rows) {
+        this.sortedMillis = sortedMillis;
+        this.rows = rows;
+
+        if (rows.length == 0) {
+            this.firstDay = 0;
+            this.dayOffsets = new int[]{0};
+            this.firstMonth = YearMonth.of(1970, 1);
+            this.monthOffsets = new int[]{0};
+            return;
+        }
+
+        this.firstDay = Math.floorDiv(sortedMillis[0], MILLIS_PER_DAY);
+        long lastDay = Math.floorDiv(sortedMillis[rows.length - 1], MILLIS_PER_DAY);
+        this.dayOffsets = new int[(int) (lastDay - firstDay) + 2];
+        int position = 0;
+        for (int d = 0; d < dayOffsets.length - 1; d++) {
+            long dayStart = (firstDay + d) * MILLIS_PER_DAY;
+            while (position < rows.length && sortedMillis[position] < dayStart) {
+                position++;
+            }
+            dayOffsets[d] = position;
+        }
+        dayOffsets[dayOffsets.length - 1] = rows.length;
+
+        this.firstMonth = YearMonth.from(LocalDate.ofEpochDay(firstDay));
+        YearMonth lastMonth = YearMonth.from(LocalDate.ofEpochDay(lastDay));
+        this.monthOffsets = new int[(int) firstMonth.until(lastMonth, ChronoUnit.MONTHS) + 2];
+        for (int m = 0; m < monthOffsets.length - 1; m++) {
+            monthOffsets[m] = lowerBound(startOf(firstMonth.plusMonths(m).atDay(1)));
+        }
+        monthOffsets[monthOffsets.length - 1] = rows.length;
+    }
+
+    // Les colonnes chargees par TransactionDAO sont deja triees par date : aucun tri dans ce cas
+    public static TimeIndex of(TransactionColumns columns) {
+        int[] order = RowSort.sortedRows(columns.size(), columns::epochMillis);
+        long[] millis = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            millis[i] = columns.epochMillis(order[i]);
+        }
+        return new TimeIndex(millis, order);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    // ========== RANGE QUERIES ==========
+    // Lignes entre start et end inclus, dans l'ordre chronologique
+    public int[] rowsBetween(LocalDateTime start, LocalDateTime end) {
+        int from = lowerBound(TransactionColumns.toEpochMillis(start));
+        int to = upperBound(TransactionColumns.toEpochMillis(end));
+        return from < to ? Arrays.copyOfRange(rows, from, to) : new int[0];
+    }
+
+    public int countBetween(LocalDateTime start, LocalDateTime end) {
+        int from = lowerBound(TransactionColumns.toEpochMillis(start));
+        int to = upperBound(TransactionColumns.toEpochMillis(end));
+        return Math.max(to - from, 0);
+    }
+
+    // ========== DAY / MONTH BUCKETS ==========
+    public int[] rowsOnDay(LocalDate day) {
+        long d = day.toEpochDay() - firstDay;
+        if (rows.length == 0 || d < 0 || d >= dayOffsets.length - 1) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(rows, dayOffsets[(int) d], dayOffsets[(int) d + 1]);
+    }
+
+    public int[] rowsInMonth(YearMonth month) {
+        long m = firstMonth.until(month, ChronoUnit.MONTHS);
+        if (rows.length == 0 || m < 0 || m >= monthOffsets.length - 1) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(rows, monthOffsets[(int) m], monthOffsets[(int) m + 1]);
+    }
+
+    public Map<LocalDate, int[]> groupByDay() {
+        Map<LocalDate, int[]> groups = new LinkedHashMap<>();
+        for (int d = 0; d < dayOffsets.length - 1 && rows.length > 0; d++) {
+            if (dayOffsets[d] < dayOffsets[d + 1]) {
+                groups.put(LocalDate.ofEpochDay(firstDay + d), Arrays.copyOfRange(rows, dayOffsets[d], dayOffsets[d + 1]));
+            }
+        }
+        return groups;
+    }
+
+    public Map<YearMonth, int[]> groupByMonth() {
+        Map<YearMonth, int[]> groups = new LinkedHashMap<>();
+        for (int m = 0; m < monthOffsets.length - 1 && rows.length > 0; m++) {
+            if (monthOffsets[m] < monthOffsets[m + 1]) {
+                groups.put(firstMonth.plusMonths(m), Arrays.copyOfRange(rows, monthOffsets[m], monthOffsets[m + 1]));
+            }
+        }
+        return groups;
+    }
+
+    // ========== HELPER METHODS ==========
+    // Premiere position dont la date est >= millis
+    private int lowerBound(long millis) {
+        int low = 0;
+        int high = sortedMillis.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedMillis[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Premiere position dont la date est > millis
+    private int upperBound(long millis) {
+        int low = 0;
+        int high = sortedMillis.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedMillis[mid] <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long startOf(LocalDate day) {
+        return day.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,228 @@
+package analytics;
+
+import entity.transactions.Transaction;
+import enums.TransactionType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Jeu de transactions en colonnes de types primitifs, pour l'analyse de gros volumes :
+// 37 octets par ligne (4 long, 1 int, 1 byte) au lieu d'un objet Transaction et de ses champs.
+// Une ligne est designee par son indice ; les filtres retournent des tableaux d'indices.
+// Les lieux sont les identifiants du LocationDictionary partage.
+// Les dates sont stockees en millisecondes depuis l'epoque, la date locale etant lue comme UTC.
+public final class TransactionColumns {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // Au-dela, un montant en double n'a plus de precision au centime : les bornes sont saturees
+    private static final double MAX_EXACT_AMOUNT = 1e13;
+
+    private final int size;
+    private final long[] ids;
+    private final long[] epochMillis;
+    private final long[] amountCents;
+    private final byte[] types;
+    private final int[] locationIds;
+    private final long[] accountIds;
+    private final LocationDictionary dictionary;
+    private final int locationCount;
+
+    private TransactionColumns(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.epochMillis = Arrays.copyOf(builder.epochMillis, size);
+        this.amountCents = Arrays.copyOf(builder.amountCents, size);
+        this.types = Arrays.copyOf(builder.types, size);
+        this.locationIds = Arrays.copyOf(builder.locationIds, size);
+        this.accountIds = Arrays.copyOf(builder.accountIds, size);
+        this.dictionary = builder.dictionary;
+        this.locationCount = dictionary.size();
+    }
+
+    public static TransactionColumns from(Collection<Transaction> transactions) {
+        Builder builder = new Builder(transactions.size());
+        transactions.forEach(builder::add);
+        return builder.build();
+    }
+
+    // ========== ROW ACCESS ==========
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public long epochMillis(int row) {
+        return epochMillis[row];
+    }
+
+    public long amountCents(int row) {
+        return amountCents[row];
+    }
+
+    public double amount(int row) {
+        return amountCents[row] / 100.0;
+    }
+
+    public TransactionType type(int row) {
+        return TYPES[types[row]];
+    }
+
+    public int typeOrdinal(int row) {
+        return types[row];
+    }
+
+    public int locationId(int row) {
+        return locationIds[row];
+    }
+
+    public String location(int row) {
+        return dictionary.displayName(locationIds[row]);
+    }
+
+    public long accountId(int row) {
+        return accountIds[row];
+    }
+
+    // ========== LOCATION DICTIONARY ==========
+    // Borne superieure des identifiants de lieu de ce jeu (taille du dictionnaire a sa construction)
+    public int locationCount() {
+        return locationCount;
+    }
+
+    // Forme normalisee du lieu
+    public String locationName(int locationId) {
+        return dictionary.name(locationId);
+    }
+
+    public LocationDictionary dictionary() {
+        return dictionary;
+    }
+
+    // ========== MATERIALIZATION ==========
+    // Recree l'objet Transaction d'une ligne (affichage, retour vers l'API par liste)
+    public Transaction toTransaction(int row) {
+        return new Transaction(ids[row], toDateTime(epochMillis[row]), amount(row), type(row), location(row), accountIds[row]);
+    }
+
+    public List<Transaction> toTransactions(int[] rows) {
+        List<Transaction> transactions = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            transactions.add(toTransaction(row));
+        }
+        return transactions;
+    }
+
+    // ========== CONVERSIONS ==========
+    public static long toEpochMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // Bornes de seuil en centimes, equivalentes a la comparaison des montants en double (montant = cents / 100.0).
+    // Un seuil n'est pas arrondi au centime le plus proche : 9999.996 arrondi a 10000.00 exclurait 10000.00 de "> seuil".
+    // Plus grand nombre de centimes dont le montant est <= amount : "montant > amount" <=> cents > floorCents(amount),
+    // "montant <= amount" <=> cents <= floorCents(amount)
+    public static long floorCents(double amount) {
+        if (Math.abs(amount) >= MAX_EXACT_AMOUNT) {
+            return amount > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        long cents = (long) Math.floor(amount * 100);
+        while (cents / 100.0 > amount) {
+            cents--;
+        }
+        while ((cents + 1) / 100.0 <= amount) {
+            cents++;
+        }
+        return cents;
+    }
+
+    // Plus petit nombre de centimes dont le montant est >= amount : "montant >= amount" <=> cents >= ceilCents(amount)
+    public static long ceilCents(double amount) {
+        if (Math.abs(amount) >= MAX_EXACT_AMOUNT) {
+            return amount > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        long cents = (long) Math.ceil(amount * 100);
+        while (cents / 100.0 < amount) {
+            cents++;
+        }
+        while ((cents - 1) / 100.0 >= amount) {
+            cents--;
+        }
+        return cents;
+    }
+
+    // ========== BUILDER ==========
+    // Remplit les colonnes ligne par ligne ; les tableaux doublent de taille au besoin
+    public static final class Builder {
+        private int size;
+        private long[] ids;
+        private long[] epochMillis;
+        private long[] amountCents;
+        private byte[] types;
+        private int[] locationIds;
+        private long[] accountIds;
+        private final LocationDictionary dictionary = LocationDictionary.getInstance();
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            this.ids = new long[capacity];
+            this.epochMillis = new long[capacity];
+            this.amountCents = new long[capacity];
+            this.types = new byte[capacity];
+            this.locationIds = new int[capacity];
+            this.accountIds = new long[capacity];
+        }
+
+        public Builder add(Transaction transaction) {
+            return add(transaction.id() != null ? transaction.id() : 0L, toEpochMillis(transaction.date()),
+                    toCents(transaction.amount()), transaction.type(), transaction.location(), transaction.accountId());
+        }
+
+        public Builder add(long id, long epochMillis, long amountCents, TransactionType type, String location, long accountId) {
+            if (size == ids.length) {
+                grow();
+            }
+            this.ids[size] = id;
+            this.epochMillis[size] = epochMillis;
+            this.amountCents[size] = amountCents;
+            this.types[size] = (byte) type.ordinal();
+            this.locationIds[size] = dictionary.idOf(location);
+            this.accountIds[size] = accountId;
+            size++;
+            return this;
+        }
+
+        public TransactionColumns build() {
+            return new TransactionColumns(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            epochMillis = Arrays.copyOf(epochMillis, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            types = Arrays.copyOf(types, capacity);
+            locationIds = Arrays.copyOf(locationIds, capacity);
+            accountIds = Arrays.copyOf(accountIds, capacity);
+        }
+    }
+}
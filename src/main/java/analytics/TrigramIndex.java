@@ -0,0 +1,132 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Index inverse de trigrammes pour la recherche de sous-chaine (casse ignoree), comme un ILIKE '%x%'
+// en memoire. Chaque trigramme d'une cle pointe vers la liste triee des elements qui le contiennent :
+// une recherche intersecte les listes des trigrammes de la sous-chaine puis verifie les candidats.
+public final class TrigramIndex<T> {
+
+    private static final int[] NONE = new int[0];
+
+    private final List<T> items;
+    private final String[] keys;
+    private final Map<Long, int[]> postings;
+
+    private TrigramIndex(List<T> items, String[] keys, Map<Long, int[]> postings) {
+        this.items = items;
+        this.keys = keys;
+        this.postings = postings;
+    }
+
+    // L'identifiant d'un element est sa position dans la liste
+    public static <T> TrigramIndex<T> of(List<T> items, Function<T, String> key) {
+        String[] keys = new String[items.size()];
+        Map<Long, List<Integer>> building = new HashMap<>();
+        for (int id = 0; id < keys.length; id++) {
+            String value = key.apply(items.get(id));
+            keys[id] = value == null ? "" : value.toLowerCase(Locale.ROOT);
+            for (long trigram : trigrams(keys[id])) {
+                building.computeIfAbsent(trigram, t -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((trigram, ids) -> postings.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new TrigramIndex<>(List.copyOf(items), keys, postings);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public T get(int id) {
+        return items.get(id);
+    }
+
+    // ========== SEARCH ==========
+    // Identifiants (croissants) des elements dont la cle contient la sous-chaine
+    public int[] matchingIds(String substring) {
+        String needle = substring == null ? "" : substring.toLowerCase(Locale.ROOT);
+
+        // Trop court pour un trigramme : peu de cles distinctes, on les parcourt
+        if (needle.length() < 3) {
+            return verify(null, needle);
+        }
+
+        List<int[]> lists = new ArrayList<>();
+        for (long trigram : trigrams(needle)) {
+            int[] list = postings.get(trigram);
+            if (list == null) {
+                return NONE;
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+        // Les trigrammes presents ne garantissent pas la sous-chaine entiere
+        return verify(candidates, needle);
+    }
+
+    public List<T> search(String substring) {
+        int[] ids = matchingIds(substring);
+        List<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(items.get(id));
+        }
+        return result;
+    }
+
+    // ========== HELPER METHODS ==========
+    private int[] verify(int[] candidates, String needle) {
+        int count = candidates != null ? candidates.length : keys.length;
+        int[] matches = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int id = candidates != null ? candidates[i] : i;
+            if (keys[id].contains(needle)) {
+                matches[found++] = id;
+            }
+        }
+        return Arrays.copyOf(matches, found);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static Set<Long> trigrams(String value) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,142 @@
+package analytics;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.LongConsumer;
+
+// Detection de vitesse par compte : plus de maxCount transactions dans une fenetre glissante.
+// Chaque compte garde ses maxCount dernieres dates dans un tampon circulaire ; une ligne arrivant
+// alors que le tampon est plein et que sa plus ancienne date est dans la fenetre signale toute la
+// rafale. Travail constant par ligne, memoire proportionnelle au nombre de comptes (pas de lignes).
+// Les lignes doivent arriver triees par date (croissante ou decroissante) pour chaque compte.
+public final class VelocityDetector {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int maxCount;
+    private final long windowMillis;
+    private final LongConsumer onFlagged;
+
+    // Table de hachage ouverte compte -> emplacement, sans objet par compte
+    private long[] accountKeys = new long[1024];
+    private int[] accountSlots = new int[1024];
+    private int accountCount;
+
+    // Par emplacement : tampon circulaire de maxCount (date, reference), nombre de lignes vues,
+    // sequence de la derniere ligne signalee
+    private long[] times;
+    private long[] refs;
+    private long[] seen = new long[256];
+    private long[] lastFlagged = new long[256];
+
+    // onFlagged recoit une fois chaque reference signalee (indice de ligne, id de transaction...)
+    public VelocityDetector(int maxCount, Duration window, LongConsumer onFlagged) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("Le nombre maximal de transactions doit etre positif");
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("La fenetre doit etre positive");
+        }
+        this.maxCount = maxCount;
+        this.windowMillis = window.toMillis();
+        this.onFlagged = onFlagged;
+        this.times = new long[256 * maxCount];
+        this.refs = new long[256 * maxCount];
+        Arrays.fill(accountKeys, EMPTY);
+        Arrays.fill(lastFlagged, -1);
+    }
+
+    // ========== ACCEPT ==========
+    public void accept(long accountId, long epochMillis, long ref) {
+        int slot = slotOf(accountId);
+        long n = seen[slot];
+        int base = slot * maxCount;
+
+        if (n >= maxCount) {
+            // Plus ancienne des maxCount dernieres lignes : sequence n - maxCount
+            int oldest = base + (int) (n % maxCount);
+            if (Math.abs(epochMillis - times[oldest]) <= windowMillis) {
+                // maxCount + 1 lignes dans la fenetre : chaque ligne n'est signalee qu'une fois
+                for (long seq = Math.max(lastFlagged[slot] + 1, n - maxCount); seq < n; seq++) {
+                    onFlagged.accept(refs[base + (int) (seq % maxCount)]);
+                }
+                onFlagged.accept(ref);
+                lastFlagged[slot] = n;
+            }
+        }
+
+        int position = base + (int) (n % maxCount);
+        times[position] = epochMillis;
+        refs[position] = ref;
+        seen[slot] = n + 1;
+    }
+
+    // ========== COLUMNAR DETECTION ==========
+    // Lignes signalees d'un jeu en colonnes, parcouru dans l'ordre chronologique
+    public static BitSet detect(TransactionColumns columns, int maxCount, Duration window) {
+        BitSet flagged = new BitSet(columns.size());
+        VelocityDetector detector = new VelocityDetector(maxCount, window, ref -> flagged.set((int) ref));
+        for (int row : RowSort.sortedRows(columns.size(), columns::epochMillis)) {
+            detector.accept(columns.accountId(row), columns.epochMillis(row), row);
+        }
+        return flagged;
+    }
+
+    // ========== HELPER METHODS ==========
+    private int slotOf(long accountId) {
+        int mask = accountKeys.length - 1;
+        int index = hash(accountId) & mask;
+        while (accountKeys[index] != EMPTY) {
+            if (accountKeys[index] == accountId) {
+                return accountSlots[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        int slot = accountCount++;
+        accountKeys[index] = accountId;
+        accountSlots[index] = slot;
+        ensureSlotCapacity(slot);
+        if (accountCount * 2 > accountKeys.length) {
+            rehash();
+        }
+        return slot;
+    }
+
+    private void ensureSlotCapacity(int slot) {
+        if (slot < seen.length) {
+            return;
+        }
+        int capacity = seen.length * 2;
+        seen = Arrays.copyOf(seen, capacity);
+        lastFlagged = Arrays.copyOf(lastFlagged, capacity);
+        times = Arrays.copyOf(times, capacity * maxCount);
+        refs = Arrays.copyOf(refs, capacity * maxCount);
+        Arrays.fill(lastFlagged, slot, capacity, -1);
+    }
+
+    private void rehash() {
+        long[] oldKeys = accountKeys;
+        int[] oldSlots = accountSlots;
+        accountKeys = new long[oldKeys.length * 2];
+        accountSlots = new int[oldKeys.length * 2];
+        Arrays.fill(accountKeys, EMPTY);
+        int mask = accountKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = hash(oldKeys[i]) & mask;
+                while (accountKeys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                accountKeys[index] = oldKeys[i];
+                accountSlots[index] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
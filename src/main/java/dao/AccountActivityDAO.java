@@ -0,0 +1,126 @@
+package dao;
+
+import entity.accounts.AccountActivity;
+import entity.transactions.Transaction;
+import util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+public class AccountActivityDAO {
+
+    // ========== READ BY ACCOUNT ID ==========
+    public Optional<AccountActivity> findByAccountId(Long accountId) {
+        String sql = "SELECT accountId, transactionCount, totalAmount, lastActivity FROM account_activity WHERE accountId = ?";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setLong(1, accountId);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                Timestamp last = rs.getTimestamp("lastActivity");
+                return Optional.of(new AccountActivity(
+                        rs.getLong("accountId"),
+                        rs.getLong("transactionCount"),
+                        rs.getDouble("totalAmount"),
+                        last != null ? last.toLocalDateTime() : null
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recherche de l'activite du compte");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    // ========== MAINTENANCE (connexion de l'appelant) ==========
+    // Ces methodes s'executent dans la transaction SQL ouverte par l'appelant, qui valide ou annule le tout.
+
+    void recordAdded(Connection conn, Collection<Transaction> transactions) throws SQLException {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            deltas.computeIfAbsent(transaction.accountId(), id -> new Delta())
+                    .add(transaction.amount(), transaction.date());
+        }
+        applyDeltas(conn, deltas);
+    }
+
+    // Lignes upsertees par accountId croissant, quel que soit l'ordre de la map recue : deux ecrivains
+    // multi-comptes (createAll, import COPY, commit groupe) prennent leurs verrous dans le meme ordre
+    // que PostingEngine et lockAvailableBalances, et ne peuvent pas s'interbloquer
+    void applyDeltas(Connection conn, Map<Long, Delta> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Delta> ordered = new TreeMap<>(deltas);
+
+        String sql = "INSERT INTO account_activity (accountId, transactionCount, totalAmount, lastActivity) " +
+                "VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (accountId) DO UPDATE SET " +
+                "transactionCount = account_activity.transactionCount + EXCLUDED.transactionCount, " +
+                "totalAmount = account_activity.totalAmount + EXCLUDED.totalAmount, " +
+                "lastActivity = GREATEST(account_activity.lastActivity, EXCLUDED.lastActivity)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (var entry : ordered.entrySet()) {
+                Delta delta = entry.getValue();
+                stmt.setLong(1, entry.getKey());
+                stmt.setLong(2, delta.count);
+                stmt.setDouble(3, delta.total);
+                stmt.setTimestamp(4, delta.last != null ? Timestamp.valueOf(delta.last) : null);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // La transaction doit deja etre supprimee : la derniere date est recalculee si elle etait la plus recente
+    void recordRemoved(Connection conn, Long accountId, double amount, LocalDateTime date) throws SQLException {
+        String sql = "UPDATE account_activity SET " +
+                "transactionCount = transactionCount - 1, " +
+                "totalAmount = totalAmount - ?, " +
+                "lastActivity = CASE WHEN lastActivity <= ? " +
+                "THEN (SELECT MAX(t.date) FROM transaction t WHERE t.accountId = ?) " +
+                "ELSE lastActivity END " +
+                "WHERE accountId = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDouble(1, amount);
+            stmt.setTimestamp(2, Timestamp.valueOf(date));
+            stmt.setLong(3, accountId);
+            stmt.setLong(4, accountId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Cumul des variations d'un compte avant ecriture groupee
+    static final class Delta {
+        private long count;
+        private double total;
+        private LocalDateTime last;
+
+        void add(double amount, LocalDateTime date) {
+            count++;
+            total += amount;
+            if (last == null || date.isAfter(last)) {
+                last = date;
+            }
+        }
+    }
+}
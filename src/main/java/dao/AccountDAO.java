@@ -2,24 +2,47 @@ package dao;
 
 import entity.accounts.Account;
 import entity.accounts.CheckingAccount;
+import entity.accounts.InactiveAccount;
 import entity.accounts.SavingsAccount;
+import util.CacheGenerations;
 import util.DatabaseConnection;
+import util.LruCache;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.LongSupplier;
 
 public class AccountDAO {
 
+    // Caches partages par toutes les instances : comptes par id, et index numero -> id.
+    // Les comptes sont mutables : le cache garde sa propre copie et chaque lecture en retourne une nouvelle.
+    private static final int CACHE_SIZE = 10_000;
+    private static final long CACHE_TTL_MILLIS = 60_000;
+    private static final LruCache<Long, Account> accountsById = new LruCache<>(CACHE_SIZE, CACHE_TTL_MILLIS);
+    private static final LruCache<String, Long> idsByNumber = new LruCache<>(CACHE_SIZE, CACHE_TTL_MILLIS);
+    // Generations incrementees par chaque invalidation (par tranche d'ids, et au total) : une lecture
+    // commencee avant un posting et terminee apres son invalidation ne remet pas l'ancien solde en cache
+    private static final CacheGenerations generations = new CacheGenerations(1024);
+
     // ========== CREATE ==========
     public Optional<Account> create(Account account) throws SQLException {
         String sql = "INSERT INTO account (number, balance, clientId, type, overdraft, interest) VALUES (?, ?, ?, ?, ?, ?)";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             stmt.setString(1, account.getNumber());
             stmt.setDouble(2, account.getBalance());
             stmt.setLong(3, account.getClientId());
@@ -47,34 +70,39 @@ public class AccountDAO {
         } finally {
             if (rs != null) rs.close();
             if (stmt != null) stmt.close();
+            if (conn != null) conn.close();
         }
 
         return Optional.empty();
     }
 
     // ========== UPDATE ==========
+    // Le solde n'est pas ecrit ici : il ne change que par updateBalance et applyBalanceDelta,
+    // pour qu'une modification de decouvert ou de taux n'ecrase pas un solde poste entre-temps.
     public boolean update(Account account) {
-        String sql = "UPDATE account SET number = ?, balance = ?, clientId = ?, type = ?, overdraft = ?, interest = ? WHERE id = ?";
+        String sql = "UPDATE account SET number = ?, clientId = ?, type = ?, overdraft = ?, interest = ? WHERE id = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setString(1, account.getNumber());
-            stmt.setDouble(2, account.getBalance());
-            stmt.setLong(3, account.getClientId());
-            stmt.setString(4, account.getType());
+            stmt.setLong(2, account.getClientId());
+            stmt.setString(3, account.getType());
 
             if (account instanceof CheckingAccount) {
-                stmt.setDouble(5, ((CheckingAccount) account).getOverdraft());
-                stmt.setNull(6, Types.DECIMAL);
-            } else if (account instanceof SavingsAccount) {
+                stmt.setDouble(4, ((CheckingAccount) account).getOverdraft());
                 stmt.setNull(5, Types.DECIMAL);
-                stmt.setDouble(6, ((SavingsAccount) account).getInterest());
+            } else if (account instanceof SavingsAccount) {
+                stmt.setNull(4, Types.DECIMAL);
+                stmt.setDouble(5, ((SavingsAccount) account).getInterest());
             }
 
-            stmt.setLong(7, account.getId());
+            stmt.setLong(6, account.getId());
 
             int rowsAffected = stmt.executeUpdate();
+            forget(account.getId());
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -83,22 +111,113 @@ public class AccountDAO {
         } finally {
             try {
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
         }
     }
 
+    // ========== UPDATE BALANCE ==========
+    public boolean updateBalance(Long id, double newBalance) {
+        String sql = "UPDATE account SET balance = ? WHERE id = ?";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setDouble(1, newBalance);
+            stmt.setLong(2, id);
+
+            int rowsAffected = stmt.executeUpdate();
+            invalidate(id);
+            return rowsAffected > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Erreur de la mise a jour du solde");
+            return false;
+        } finally {
+            try {
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+    }
+
+    // ========== APPLY BALANCE DELTA ==========
+    // Mise a jour conditionnelle dans la transaction SQL de l'appelant : un debit n'est applique que si
+    // le solde reste au-dessus du decouvert autorise. Retourne false si le compte est introuvable ou si
+    // le debit est refuse ; le verrou de ligne pris par l'UPDATE serialise les postings concurrents.
+    // L'appelant invalide aussi le cache apres son commit : une lecture entre-temps a pu recharger l'ancien solde.
+    public boolean applyBalanceDelta(Connection conn, Long id, double delta) throws SQLException {
+        invalidate(id);
+        String sql = "UPDATE account SET balance = balance + ? " +
+                "WHERE id = ? AND (? >= 0 OR balance + ? >= -COALESCE(overdraft, 0))";
+
+        // Variation en NUMERIC (et non en float8) : meme decision au centime pres que le commit groupe
+        BigDecimal amount = BigDecimal.valueOf(delta);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBigDecimal(1, amount);
+            stmt.setLong(2, id);
+            stmt.setBigDecimal(3, amount);
+            stmt.setBigDecimal(4, amount);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // ========== BATCH BALANCE UPDATE ==========
+    // Verrouille les comptes dans l'ordre des identifiants (meme ordre que les virements) et retourne
+    // pour chacun le montant disponible : solde + decouvert autorise. Un compte absent n'est pas dans la map.
+    public Map<Long, BigDecimal> lockAvailableBalances(Connection conn, Collection<Long> ids) throws SQLException {
+        String sql = "SELECT id, balance + COALESCE(overdraft, 0) AS available FROM account " +
+                "WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+        Map<Long, BigDecimal> available = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", ids.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    available.put(rs.getLong("id"), rs.getBigDecimal("available"));
+                }
+            }
+        }
+        return available;
+    }
+
+    // Variation nette par compte, en un seul lot ; les lignes doivent etre verrouillees par lockAvailableBalances
+    public void applyBalanceDeltas(Connection conn, Map<Long, BigDecimal> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        String sql = "UPDATE account SET balance = balance + ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (var entry : deltas.entrySet()) {
+                invalidate(entry.getKey());
+                stmt.setBigDecimal(1, entry.getValue());
+                stmt.setLong(2, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
     // ========== DELETE ==========
     public boolean delete(Long id) {
         String sql = "DELETE FROM account WHERE id = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, id);
 
             int rowsDeleted = stmt.executeUpdate();
+            forget(id);
             return rowsDeleted > 0;
 
         } catch (SQLException e) {
@@ -107,6 +226,7 @@ public class AccountDAO {
         } finally {
             try {
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -115,17 +235,26 @@ public class AccountDAO {
 
     // ========== READ BY ID ==========
     public Optional<Account> findById(Long id) {
+        Optional<Account> cached = accountsById.get(id);
+        if (cached.isPresent()) {
+            return Optional.of(copyOf(cached.get()));
+        }
+        long generation = generationOf(id);
+
         String sql = "SELECT id, number, balance, clientId, type, overdraft, interest FROM account WHERE id = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, id);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
                 Account account = mapResultSetToAccount(rs);
+                cache(account, generation, () -> generationOf(id));
                 return Optional.of(account);
             }
         } catch (SQLException e) {
@@ -134,6 +263,7 @@ public class AccountDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -141,15 +271,62 @@ public class AccountDAO {
         return Optional.empty();
     }
 
+    // ========== READ BY IDS ==========
+    // Comptes du cache, puis une seule requete pour les autres ; les ids inconnus sont absents de la map
+    public Map<Long, Account> findByIds(Collection<Long> ids) {
+        Map<Long, Account> accounts = new HashMap<>();
+        Collection<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            accountsById.get(id).ifPresentOrElse(account -> accounts.put(id, copyOf(account)), () -> missing.add(id));
+        }
+        if (missing.isEmpty()) {
+            return accounts;
+        }
+        Map<Long, Long> readGenerations = new HashMap<>();
+        missing.forEach(id -> readGenerations.put(id, generationOf(id)));
+
+        String sql = "SELECT id, number, balance, clientId, type, overdraft, interest FROM account WHERE id = ANY(?)";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setArray(1, conn.createArrayOf("bigint", missing.toArray()));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Account account = mapResultSetToAccount(rs);
+                Long id = account.getId();
+                cache(account, readGenerations.get(id), () -> generationOf(id));
+                accounts.put(id, account);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recherche des comptes");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return accounts;
+    }
+
     // ========== READ BY CLIENT ID ==========
     public List<Account> findByClientId(Long clientId) {
         List<Account> accounts = new ArrayList<>();
         String sql = "SELECT id, number, balance, clientId, type, overdraft, interest FROM account WHERE clientId = ? ORDER BY id";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, clientId);
             rs = stmt.executeQuery();
 
@@ -163,6 +340,7 @@ public class AccountDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -174,11 +352,13 @@ public class AccountDAO {
     public List<Account> findAll() {
         List<Account> accounts = new ArrayList<>();
         String sql = "SELECT id, number, balance, clientId, type, overdraft, interest FROM account ORDER BY id";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -191,6 +371,7 @@ public class AccountDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -200,25 +381,38 @@ public class AccountDAO {
 
     // ========== READ BY NUMBER ==========
     public Optional<Account> findByNumber(String number) {
+        Optional<Account> cached = idsByNumber.get(number).flatMap(accountsById::get);
+        // Le numero d'un compte peut avoir change depuis la mise en cache de l'index
+        if (cached.isPresent() && cached.get().getNumber().equals(number)) {
+            return Optional.of(copyOf(cached.get()));
+        }
+        // L'id n'est connu qu'apres la lecture : on compare le nombre total d'invalidations
+        long generation = generations.total();
+
         String sql = "SELECT id, number, balance, clientId, type, overdraft, interest FROM account WHERE number = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setString(1, number);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
                 Account account = mapResultSetToAccount(rs);
+                cache(account, generation, generations::total);
                 return Optional.of(account);
             }
+            idsByNumber.remove(number);
         } catch (SQLException e) {
             System.err.println("Erreur de recherche par numero");
         } finally {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -226,48 +420,162 @@ public class AccountDAO {
         return Optional.empty();
     }
 
-    // ========== HELPER METHOD ==========
-    private Account mapResultSetToAccount(ResultSet rs) throws SQLException {
-        Long id = rs.getLong("id");
-        String number = rs.getString("number");
-        double balance = rs.getDouble("balance");
-        Long clientId = rs.getLong("clientId");
-        String type = rs.getString("type");
+    // ========== FIND INACTIVE ==========
+    // Comptes sans transaction depuis cutoff (inclus) ou sans aucune transaction, avec leur proprietaire.
+    // La derniere date vient du resume account_activity : aucune lecture de l'historique.
+    public List<InactiveAccount> findInactiveSince(LocalDateTime cutoff) {
+        List<InactiveAccount> inactive = new ArrayList<>();
+        String sql = "SELECT a.id, a.number, a.balance, a.clientId, a.type, a.overdraft, a.interest, " +
+                "c.name AS ownerName, act.lastActivity " +
+                "FROM account a " +
+                "JOIN client c ON c.id = a.clientId " +
+                "LEFT JOIN account_activity act ON act.accountId = a.id " +
+                "WHERE act.lastActivity IS NULL OR act.lastActivity <= ? " +
+                "ORDER BY a.id";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
 
-        if ("CHECKING".equals(type)) {
-            double overdraft = rs.getDouble("overdraft");
-            return new CheckingAccount(id, number, balance, clientId, overdraft);
-        } else if ("SAVINGS".equals(type)) {
-            double interest = rs.getDouble("interest");
-            return new SavingsAccount(id, number, balance, clientId, interest);
-        }
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            rs = stmt.executeQuery();
 
-        throw new SQLException("Type de compte inconnu : " + type);
+            LocalDateTime now = LocalDateTime.now();
+            while (rs.next()) {
+                Timestamp last = rs.getTimestamp("lastActivity");
+                LocalDateTime lastActivity = last != null ? last.toLocalDateTime() : null;
+                inactive.add(new InactiveAccount(
+                        mapResultSetToAccount(rs),
+                        rs.getString("ownerName"),
+                        lastActivity,
+                        lastActivity != null ? ChronoUnit.DAYS.between(lastActivity, now) : null
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recherche des comptes inactifs");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return inactive;
     }
 
-    // ========== GET LAST ACCOUNT NUMBER ==========
-    public Optional<String> getLastAccountNumber() {
-        String sql = "SELECT number FROM account ORDER BY id DESC LIMIT 1";
+    // ========== RESOLVE IDS BY NUMBERS ==========
+    // Une seule requete pour tout le lot ; les numeros inconnus sont absents de la map
+    public Map<String, Long> findIdsByNumbers(Collection<String> numbers) {
+        Map<String, Long> ids = new HashMap<>();
+        Collection<String> missing = new HashSet<>();
+        for (String number : numbers) {
+            idsByNumber.get(number).ifPresentOrElse(id -> ids.put(number, id), () -> missing.add(number));
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        String sql = "SELECT id, number FROM account WHERE number = ANY(?)";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setArray(1, conn.createArrayOf("varchar", missing.toArray()));
             rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                return Optional.of(rs.getString("number"));
+            while (rs.next()) {
+                String number = rs.getString("number");
+                Long id = rs.getLong("id");
+                ids.put(number, id);
+                idsByNumber.put(number, id);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur de recuperation du dernier numero");
+            System.err.println("Erreur de resolution des numeros de compte");
         } finally {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
         }
-        return Optional.empty();
+        return ids;
+    }
+
+    // ========== CACHE ==========
+    // Solde ou attributs modifies : la prochaine lecture recharge le compte
+    public static void invalidate(Long id) {
+        // Generation incrementee avant le retrait : voir cache()
+        generations.increment(id);
+        accountsById.remove(id);
+    }
+
+    public static LruCache.Stats getCacheStats() {
+        return accountsById.getStats();
+    }
+
+    public static LruCache.Stats getNumberIndexStats() {
+        return idsByNumber.getStats();
+    }
+
+    // Compte supprime ou renumerote : l'index numero -> id est aussi nettoye
+    static void forget(Long id) {
+        invalidate(id);
+        idsByNumber.removeIf(id::equals);
+    }
+
+    // Met en cache un compte lu alors que la generation valait readGeneration.
+    // Rien n'est mis en cache si une invalidation a eu lieu pendant la lecture ; une invalidation
+    // concurrente de la mise en cache est vue par le second test, qui retire l'entree.
+    private static void cache(Account account, long readGeneration, LongSupplier currentGeneration) {
+        if (currentGeneration.getAsLong() != readGeneration) {
+            return;
+        }
+        accountsById.put(account.getId(), copyOf(account));
+        idsByNumber.put(account.getNumber(), account.getId());
+        if (currentGeneration.getAsLong() != readGeneration) {
+            accountsById.remove(account.getId());
+        }
+    }
+
+    private static long generationOf(Long id) {
+        return generations.of(id);
+    }
+
+    private static Account copyOf(Account account) {
+        if (account instanceof CheckingAccount checking) {
+            return new CheckingAccount(checking.getId(), checking.getNumber(), checking.getBalance(),
+                    checking.getClientId(), checking.getOverdraft());
+        }
+        SavingsAccount savings = (SavingsAccount) account;
+        return new SavingsAccount(savings.getId(), savings.getNumber(), savings.getBalance(),
+                savings.getClientId(), savings.getInterest());
+    }
+
+    // ========== HELPER METHOD ==========
+    private Account mapResultSetToAccount(ResultSet rs) throws SQLException {
+        Long id = rs.getLong("id");
+        String number = rs.getString("number");
+        double balance = rs.getDouble("balance");
+        Long clientId = rs.getLong("clientId");
+        String type = rs.getString("type");
+
+        if ("CHECKING".equals(type)) {
+            double overdraft = rs.getDouble("overdraft");
+            return new CheckingAccount(id, number, balance, clientId, overdraft);
+        } else if ("SAVINGS".equals(type)) {
+            double interest = rs.getDouble("interest");
+            return new SavingsAccount(id, number, balance, clientId, interest);
+        }
+
+        throw new SQLException("Type de compte inconnu : " + type);
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package dao;
+
+import util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generateur hi/lo des numeros de compte, partage par toute la JVM.
+// Chaque appel a la sequence reserve un bloc de BLOCK_SIZE numeros ; les numeros du bloc sont
+// distribues en memoire sans aller-retour base, et deux JVM ne recoivent jamais le meme bloc.
+public class AccountNumberGenerator {
+
+    // Doit correspondre a l'INCREMENT BY de account_number_seq
+    public static final int BLOCK_SIZE = 50;
+    private static final long MAX_NUMBER = 99999;
+    private static final String PREFIX = "CPT-";
+
+    private static final AccountNumberGenerator INSTANCE = new AccountNumberGenerator();
+
+    private volatile Block current = new Block(0, 0);
+
+    private AccountNumberGenerator() {
+    }
+
+    public static AccountNumberGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    // ========== NEXT NUMBER ==========
+    public Optional<String> nextNumber() {
+        while (true) {
+            Block block = current;
+            long number = block.next.getAndIncrement();
+            if (number < block.limit) {
+                return Optional.of(PREFIX + number);
+            }
+
+            // Bloc epuise : un seul thread reserve le suivant, les autres reessaient ensuite
+            synchronized (this) {
+                if (current == block) {
+                    Optional<Block> reserved = reserveBlock();
+                    if (reserved.isEmpty()) {
+                        return Optional.empty();
+                    }
+                    current = reserved.get();
+                }
+            }
+        }
+    }
+
+    private Optional<Block> reserveBlock() {
+        String sql = "SELECT nextval('account_number_seq')";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                long start = rs.getLong(1);
+                return Optional.of(new Block(start, Math.min(start + BLOCK_SIZE, MAX_NUMBER + 1)));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de reservation d'un bloc de numeros de compte : " + e.getMessage());
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package dao;
 
 import entity.client.Client;
+import entity.client.ClientBalance;
+import util.CacheGenerations;
 import util.DatabaseConnection;
+import util.LruCache;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class ClientDAO {
 
+    // Cache partage par toutes les instances ; Client est immuable, les entrees sont retournees telles quelles
+    private static final int CACHE_SIZE = 10_000;
+    private static final long CACHE_TTL_MILLIS = 300_000;
+    private static final LruCache<Long, Client> clientsById = new LruCache<>(CACHE_SIZE, CACHE_TTL_MILLIS);
+    // Une lecture concurrente d'une modification ou d'une suppression ne remet pas l'ancien client en cache
+    private static final CacheGenerations generations = new CacheGenerations(1024);
+
     // ========== CREATE ==========
     public Optional<Client> create(Client client) throws SQLException {
         String sql = "INSERT INTO client (name, email) VALUES (?, ?)";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             stmt.setString(1, client.name());
             stmt.setString(2, client.email());
             stmt.executeUpdate();
@@ -33,6 +50,7 @@ public class ClientDAO {
         } finally {
             if (rs != null) rs.close();
             if (stmt != null) stmt.close();
+            if (conn != null) conn.close();
         }
 
         return Optional.empty();
@@ -41,15 +59,18 @@ public class ClientDAO {
     // ========== UPDATE ==========
     public boolean update(Client client) {
         String sql = "UPDATE client SET name = ?, email = ? WHERE id = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setString(1, client.name());
             stmt.setString(2, client.email());
             stmt.setLong(3, client.id());
 
             int rowsAffected = stmt.executeUpdate();
+            evict(client.id());
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -58,6 +79,7 @@ public class ClientDAO {
         } finally {
             try {
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -65,23 +87,50 @@ public class ClientDAO {
     }
 
     // ========== DELETE ==========
+    // Les comptes du client sont supprimes en cascade : leurs entrees du cache des comptes sont aussi retirees
     public boolean delete(Long id) {
+        String accountsSql = "SELECT id FROM account WHERE clientId = ? FOR UPDATE";
         String sql = "DELETE FROM client WHERE id = ?";
+        Connection conn = null;
+        PreparedStatement accountsStmt = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Long> accountIds = new ArrayList<>();
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
-            stmt.setLong(1, id);
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            accountsStmt = conn.prepareStatement(accountsSql);
+            accountsStmt.setLong(1, id);
+            rs = accountsStmt.executeQuery();
+            while (rs.next()) {
+                accountIds.add(rs.getLong("id"));
+            }
 
+            stmt = conn.prepareStatement(sql);
+            stmt.setLong(1, id);
             int rowsDeleted = stmt.executeUpdate();
+            conn.commit();
+
+            evict(id);
+            accountIds.forEach(AccountDAO::forget);
             return rowsDeleted > 0;
 
         } catch (SQLException e) {
             System.err.println("Erreur de la suppression du client");
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackError) {
+                System.err.println("Erreur lors de l'annulation de la transaction: " + rollbackError.getMessage());
+            }
             return false;
         } finally {
             try {
+                if (rs != null) rs.close();
+                if (accountsStmt != null) accountsStmt.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -90,12 +139,20 @@ public class ClientDAO {
 
     // ========== READ BY ID ==========
     public Optional<Client> findById(Long id) {
+        Optional<Client> cached = clientsById.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = generations.of(id);
+
         String sql = "SELECT id, name, email FROM client WHERE id = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, id);
             rs = stmt.executeQuery();
 
@@ -105,6 +162,7 @@ public class ClientDAO {
                         rs.getString("name"),
                         rs.getString("email")
                 );
+                cache(client, generation);
                 return Optional.of(client);
             }
         } catch (SQLException e) {
@@ -113,6 +171,7 @@ public class ClientDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -120,15 +179,88 @@ public class ClientDAO {
         return Optional.empty();
     }
 
+    // ========== READ BY IDS ==========
+    // Clients du cache, puis une seule requete pour les autres ; les ids inconnus sont absents de la map
+    public Map<Long, Client> findByIds(Collection<Long> ids) {
+        Map<Long, Client> clients = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            clientsById.get(id).ifPresentOrElse(client -> clients.put(id, client), () -> missing.add(id));
+        }
+        if (missing.isEmpty()) {
+            return clients;
+        }
+        Map<Long, Long> readGenerations = new HashMap<>();
+        missing.forEach(id -> readGenerations.put(id, generations.of(id)));
+
+        String sql = "SELECT id, name, email FROM client WHERE id = ANY(?)";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setArray(1, conn.createArrayOf("bigint", missing.toArray()));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Client client = new Client(
+                        rs.getLong("id"),
+                        rs.getString("name"),
+                        rs.getString("email")
+                );
+                clients.put(client.id(), client);
+                cache(client, readGenerations.get(client.id()));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recherche des clients");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return clients;
+    }
+
+    // ========== CACHE ==========
+    public static LruCache.Stats getCacheStats() {
+        return clientsById.getStats();
+    }
+
+    // Generation incrementee avant le retrait : voir cache()
+    private static void evict(Long id) {
+        generations.increment(id);
+        clientsById.remove(id);
+    }
+
+    // Rien n'est mis en cache si une invalidation a eu lieu pendant la lecture ; une invalidation
+    // concurrente de la mise en cache est vue par le second test, qui retire l'entree
+    private static void cache(Client client, long readGeneration) {
+        if (generations.of(client.id()) != readGeneration) {
+            return;
+        }
+        clientsById.put(client.id(), client);
+        if (generations.of(client.id()) != readGeneration) {
+            clientsById.remove(client.id());
+        }
+    }
+
     // ========== READ BY NAME ==========
     public List<Client> findByName(String name) {
         List<Client> clients = new ArrayList<>();
         String sql = "SELECT id, name, email FROM client WHERE name ILIKE ? ORDER BY id";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setString(1, "%" + name + "%");
             rs = stmt.executeQuery();
 
@@ -146,6 +278,7 @@ public class ClientDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -157,11 +290,13 @@ public class ClientDAO {
     public List<Client> findAll() {
         List<Client> clients = new ArrayList<>();
         String sql = "SELECT id, name, email FROM client ORDER BY id";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -178,10 +313,54 @@ public class ClientDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
         }
         return clients;
     }
+
+    // ========== TOP CLIENTS BY BALANCE ==========
+    // Soldes et nombre de comptes agreges en base : une seule requete quel que soit le nombre de clients
+    public List<ClientBalance> findTopByBalance(int limit) {
+        List<ClientBalance> ranking = new ArrayList<>();
+        String sql = "SELECT c.id, c.name, c.email, " +
+                "COALESCE(SUM(a.balance), 0) AS totalBalance, COUNT(a.id) AS accountCount " +
+                "FROM client c " +
+                "LEFT JOIN account a ON a.clientId = c.id " +
+                "GROUP BY c.id, c.name, c.email " +
+                "ORDER BY totalBalance DESC, c.id " +
+                "LIMIT ?";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, limit);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Client client = new Client(
+                        rs.getLong("id"),
+                        rs.getString("name"),
+                        rs.getString("email")
+                );
+                ranking.add(new ClientBalance(client, rs.getDouble("totalBalance"), rs.getInt("accountCount")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de classement des clients par solde");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return ranking;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package dao;
+
+import analytics.LocationDictionary;
+import util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocationDictionaryDAO {
+
+    // ========== LOAD ==========
+    // Charge les entrees persistees dans le dictionnaire partage, puis lui confie l'attribution des
+    // nouveaux identifiants ; a appeler avant toute lecture de lieux
+    public boolean loadInto(LocationDictionary dictionary) {
+        String sql = "SELECT id, name, displayName FROM location_dictionary ORDER BY id";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                dictionary.register(rs.getInt("id"), rs.getString("name"), rs.getString("displayName"));
+            }
+            dictionary.attach(this::allocate);
+            return true;
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("Erreur de chargement du dictionnaire des lieux : " + e.getMessage());
+            return false;
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+    }
+
+    // ========== ALLOCATE ==========
+    // Attribue en base l'identifiant d'un nouveau lieu (MAX + 1, table verrouillee : denses et uniques entre JVM),
+    // ou garde celui deja attribue par une autre instance. Retourne les entrees d'identifiant >= fromId.
+    public List<LocationDictionary.Entry> allocate(String name, String displayName, int fromId) throws SQLException {
+        String insertSql = "INSERT INTO location_dictionary (id, name, displayName) " +
+                "SELECT (SELECT COALESCE(MAX(id), -1) + 1 FROM location_dictionary), ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM location_dictionary WHERE name = ?)";
+        String selectSql = "SELECT id, name, displayName FROM location_dictionary WHERE id >= ? ORDER BY id";
+        List<LocationDictionary.Entry> entries = new ArrayList<>();
+        Connection conn = null;
+        Statement lock = null;
+        PreparedStatement insert = null;
+        PreparedStatement select = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            // Les lectures restent possibles ; deux attributions concurrentes se suivent
+            lock = conn.createStatement();
+            lock.execute("LOCK TABLE location_dictionary IN SHARE ROW EXCLUSIVE MODE");
+
+            insert = conn.prepareStatement(insertSql);
+            insert.setString(1, name);
+            insert.setString(2, displayName);
+            insert.setString(3, name);
+            insert.executeUpdate();
+
+            select = conn.prepareStatement(selectSql);
+            select.setInt(1, fromId);
+            rs = select.executeQuery();
+            while (rs.next()) {
+                entries.add(new LocationDictionary.Entry(rs.getInt("id"), rs.getString("name"), rs.getString("displayName")));
+            }
+            conn.commit();
+            return entries;
+        } catch (SQLException e) {
+            System.err.println("Erreur d'attribution d'un identifiant de lieu");
+            if (conn != null) conn.rollback();
+            throw e;
+        } finally {
+            if (rs != null) rs.close();
+            if (select != null) select.close();
+            if (insert != null) insert.close();
+            if (lock != null) lock.close();
+            if (conn != null) conn.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dao;
+
+import enums.TransactionType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import util.DatabaseConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.TreeMap;
+import java.util.Map;
+
+// Ecrit des lignes dans la table transaction via COPY FROM STDIN, dans une seule transaction SQL.
+// Les lignes sont envoyees au serveur par blocs : la memoire utilisee ne depend pas du volume importe.
+public class TransactionCopyWriter implements AutoCloseable {
+
+    private static final String COPY_SQL =
+            "COPY transaction (date, amount, type, location, accountId) FROM STDIN WITH (FORMAT csv)";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final Connection conn;
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    private final AccountActivityDAO activityDAO = new AccountActivityDAO();
+    // Une entree par compte touche (et non par ligne) : applique au resume d'activite avant le commit
+    private final Map<Long, AccountActivityDAO.Delta> activity = new TreeMap<>();
+    private long rowCount;
+    private boolean finished;
+
+    public TransactionCopyWriter() throws SQLException {
+        this.conn = DatabaseConnection.getConnection();
+        try {
+            conn.setAutoCommit(false);
+            this.copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    // ========== WRITE ROW ==========
+    public void write(LocalDateTime date, double amount, TransactionType type, String location, long accountId) throws SQLException {
+        buffer.append(date.format(DATE_FORMAT)).append(',')
+                .append(amount).append(',')
+                .append(type.name()).append(',');
+        appendQuoted(location);
+        buffer.append(',').append(accountId).append('\n');
+        activity.computeIfAbsent(accountId, id -> new AccountActivityDAO.Delta()).add(amount, date);
+        rowCount++;
+
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flushBuffer();
+        }
+    }
+
+    // ========== FINISH ==========
+    // Termine le COPY et valide la transaction ; retourne le nombre de lignes inserees
+    public long finish() throws SQLException {
+        flushBuffer();
+        long copied = copyIn.endCopy();
+        activityDAO.applyDeltas(conn, activity);
+        conn.commit();
+        finished = true;
+        return copied;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (!finished) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                conn.rollback();
+            }
+        } finally {
+            conn.close();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+    private void flushBuffer() throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void appendQuoted(String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+}
@@ -1,47 +1,77 @@
 package dao;
 
+import analytics.LocationDictionary;
+import analytics.TransactionColumns;
 import entity.transactions.Transaction;
+import entity.transactions.TransactionPage;
+import entity.transactions.TransactionQuery;
+import entity.transactions.TransactionTypeStats;
 import enums.TransactionType;
 import util.DatabaseConnection;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TransactionDAO {
 
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int STREAM_FETCH_SIZE = 1000;
+    // Chargement en colonnes : date en millisecondes (heure locale lue comme UTC) et montant en centimes
+    private static final String COLUMNS_SELECT = "SELECT id, " +
+            "(EXTRACT(EPOCH FROM date) * 1000)::bigint AS epochMillis, " +
+            "ROUND(amount * 100)::bigint AS amountCents, " +
+            "type, location, accountId FROM transaction ";
+
+    private final AccountActivityDAO activityDAO = new AccountActivityDAO();
+
     // ========== CREATE ==========
     public Optional<Transaction> create(Transaction transaction) throws SQLException {
-        String sql = "INSERT INTO transaction (date, amount, type, location, accountId) VALUES (?, ?, ?, ?, ?)";
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            Optional<Transaction> created = create(conn, transaction);
+            conn.commit();
+            return created;
+        } catch (SQLException e) {
+            System.err.println("Erreur de creation de la transaction");
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            if (conn != null) conn.close();
+        }
+    }
+
+    // Insere la transaction et met a jour le resume d'activite dans la transaction SQL de l'appelant
+    public Optional<Transaction> create(Connection conn, Transaction transaction) throws SQLException {
+        String sql = "INSERT INTO transaction (date, amount, type, location, accountId, counterpartyId) VALUES (?, ?, ?, ?, ?, ?)";
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            stmt.setTimestamp(1, Timestamp.valueOf(transaction.date()));
-            stmt.setDouble(2, transaction.amount());
-            stmt.setString(3, transaction.type().name());
-            stmt.setString(4, transaction.location());
-            stmt.setLong(5, transaction.accountId());
+            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            bindInsert(stmt, transaction);
 
             stmt.executeUpdate();
 
             rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 Long generatedId = rs.getLong(1);
-                return Optional.of(new Transaction(
-                        generatedId,
-                        transaction.date(),
-                        transaction.amount(),
-                        transaction.type(),
-                        transaction.location(),
-                        transaction.accountId()
-                ));
+                activityDAO.recordAdded(conn, List.of(transaction));
+                return Optional.of(transaction.withId(generatedId));
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur de creation de la transaction");
-            throw e;
         } finally {
             if (rs != null) rs.close();
             if (stmt != null) stmt.close();
@@ -50,29 +80,142 @@ public class TransactionDAO {
         return Optional.empty();
     }
 
+    // ========== CREATE ALL (BATCH) ==========
+    public List<Transaction> createAll(Collection<Transaction> transactions) throws SQLException {
+        return createAll(transactions, DEFAULT_BATCH_SIZE);
+    }
+
+    // Envoi par lots de batchSize lignes, un seul commit a la fin : en cas d'echec rien n'est enregistre,
+    // et l'appelant n'a pas de lignes ecrites dont il ignorerait les identifiants
+    public List<Transaction> createAll(Collection<Transaction> transactions, int batchSize) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit etre positive");
+        }
+
+        List<Transaction> created = new ArrayList<>(transactions.size());
+        if (transactions.isEmpty()) {
+            return created;
+        }
+
+        String sql = "INSERT INTO transaction (date, amount, type, location, accountId, counterpartyId) VALUES (?, ?, ?, ?, ?, ?)";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql, new String[]{"id"});
+
+            List<Transaction> pending = new ArrayList<>(Math.min(batchSize, transactions.size()));
+            for (Transaction transaction : transactions) {
+                bindInsert(stmt, transaction);
+                stmt.addBatch();
+                pending.add(transaction);
+
+                if (pending.size() == batchSize) {
+                    created.addAll(executeBatch(conn, stmt, pending));
+                    pending.clear();
+                }
+            }
+            if (!pending.isEmpty()) {
+                created.addAll(executeBatch(conn, stmt, pending));
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            System.err.println("Erreur de creation du lot de transactions, aucune transaction enregistree");
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            if (stmt != null) stmt.close();
+            if (conn != null) conn.close();
+        }
+
+        return created;
+    }
+
+    // Insertion groupee dans la transaction SQL de l'appelant, qui valide ou annule
+    public List<Transaction> insertAll(Connection conn, List<Transaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "INSERT INTO transaction (date, amount, type, location, accountId, counterpartyId) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id"})) {
+            for (Transaction transaction : transactions) {
+                bindInsert(stmt, transaction);
+                stmt.addBatch();
+            }
+            return executeBatch(conn, stmt, transactions);
+        }
+    }
+
+    private List<Transaction> executeBatch(Connection conn, PreparedStatement stmt, List<Transaction> pending) throws SQLException {
+        stmt.executeBatch();
+
+        List<Transaction> flushed = new ArrayList<>(pending.size());
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next() && flushed.size() < pending.size()) {
+                flushed.add(pending.get(flushed.size()).withId(keys.getLong(1)));
+            }
+        }
+        if (flushed.size() != pending.size()) {
+            throw new SQLException("Nombre de cles generees inattendu : " + flushed.size() + " pour " + pending.size() + " lignes");
+        }
+
+        activityDAO.recordAdded(conn, pending);
+        return flushed;
+    }
+
     // ========== UPDATE ==========
     public boolean update(Transaction transaction) {
-        String sql = "UPDATE transaction SET date = ?, amount = ?, type = ?, location = ?, accountId = ? WHERE id = ?";
+        String selectSql = "SELECT accountId, amount, date FROM transaction WHERE id = ? FOR UPDATE";
+        String sql = "UPDATE transaction SET date = ?, amount = ?, type = ?, location = ?, accountId = ?, counterpartyId = ? WHERE id = ?";
+        Connection conn = null;
+        PreparedStatement select = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // Ancienne version de la ligne, verrouillee, pour corriger le resume d'activite
+            select = conn.prepareStatement(selectSql);
+            select.setLong(1, transaction.id());
+            rs = select.executeQuery();
+            if (!rs.next()) {
+                conn.rollback();
+                return false;
+            }
+            long previousAccountId = rs.getLong("accountId");
+            double previousAmount = rs.getDouble("amount");
+            LocalDateTime previousDate = rs.getTimestamp("date").toLocalDateTime();
+
+            stmt = conn.prepareStatement(sql);
             stmt.setTimestamp(1, Timestamp.valueOf(transaction.date()));
             stmt.setDouble(2, transaction.amount());
             stmt.setString(3, transaction.type().name());
             stmt.setString(4, transaction.location());
             stmt.setLong(5, transaction.accountId());
-            stmt.setLong(6, transaction.id());
+            setNullableLong(stmt, 6, transaction.counterpartyId());
+            stmt.setLong(7, transaction.id());
+            stmt.executeUpdate();
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+            activityDAO.recordRemoved(conn, previousAccountId, previousAmount, previousDate);
+            activityDAO.recordAdded(conn, List.of(transaction));
+            conn.commit();
+            return true;
 
         } catch (SQLException e) {
             System.err.println("Erreur de la mise a jour");
+            rollbackQuietly(conn);
             return false;
         } finally {
             try {
+                if (rs != null) rs.close();
+                if (select != null) select.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -81,22 +224,36 @@ public class TransactionDAO {
 
     // ========== DELETE ==========
     public boolean delete(Long id) {
-        String sql = "DELETE FROM transaction WHERE id = ?";
+        String sql = "DELETE FROM transaction WHERE id = ? RETURNING accountId, amount, date";
+        Connection conn = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, id);
+            rs = stmt.executeQuery();
 
-            int rowsDeleted = stmt.executeUpdate();
-            return rowsDeleted > 0;
+            if (!rs.next()) {
+                conn.rollback();
+                return false;
+            }
+            activityDAO.recordRemoved(conn, rs.getLong("accountId"), rs.getDouble("amount"),
+                    rs.getTimestamp("date").toLocalDateTime());
+            conn.commit();
+            return true;
 
         } catch (SQLException e) {
             System.err.println("Erreur de la suppression de la transaction");
+            rollbackQuietly(conn);
             return false;
         } finally {
             try {
+                if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -105,12 +262,14 @@ public class TransactionDAO {
 
     // ========== READ BY ID ==========
     public Optional<Transaction> findById(Long id) {
-        String sql = "SELECT id, date, amount, type, location, accountId FROM transaction WHERE id = ?";
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction WHERE id = ?";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, id);
             rs = stmt.executeQuery();
 
@@ -124,6 +283,7 @@ public class TransactionDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -131,15 +291,53 @@ public class TransactionDAO {
         return Optional.empty();
     }
 
+    // ========== READ BY IDS ==========
+    // Une seule requete pour un lot d'identifiants ; les identifiants inconnus sont ignores
+    public List<Transaction> findByIds(Collection<Long> ids) {
+        List<Transaction> transactions = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return transactions;
+        }
+
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction WHERE id = ANY(?)";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setArray(1, conn.createArrayOf("bigint", ids.toArray()));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                transactions.add(mapResultSetToTransaction(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recherche des transactions");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return transactions;
+    }
+
     // ========== READ BY ACCOUNT ID ==========
     public List<Transaction> findByAccountId(Long accountId) {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT id, date, amount, type, location, accountId FROM transaction WHERE accountId = ? ORDER BY date DESC";
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction WHERE accountId = ? ORDER BY date DESC";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, accountId);
             rs = stmt.executeQuery();
 
@@ -153,6 +351,7 @@ public class TransactionDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -163,16 +362,18 @@ public class TransactionDAO {
     // ========== READ BY CLIENT ID (avec jointure) ==========
     public List<Transaction> findByClientId(Long clientId) {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT t.id, t.date, t.amount, t.type, t.location, t.accountId " +
+        String sql = "SELECT t.id, t.date, t.amount, t.type, t.location, t.accountId, t.counterpartyId " +
                 "FROM transaction t " +
                 "JOIN account a ON t.accountId = a.id " +
                 "WHERE a.clientId = ? " +
                 "ORDER BY t.date DESC";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             stmt.setLong(1, clientId);
             rs = stmt.executeQuery();
 
@@ -186,6 +387,7 @@ public class TransactionDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -196,12 +398,14 @@ public class TransactionDAO {
     // ========== READ ALL ==========
     public List<Transaction> findAll() {
         List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT id, date, amount, type, location, accountId FROM transaction ORDER BY date DESC";
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction ORDER BY date DESC";
+        Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
-            stmt = DatabaseConnection.getConnection().prepareStatement(sql);
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -214,6 +418,7 @@ public class TransactionDAO {
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
             } catch (SQLException e) {
                 System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
             }
@@ -221,15 +426,412 @@ public class TransactionDAO {
         return transactions;
     }
 
-    // ========== HELPER METHOD ==========
+    // ========== AGGREGATE BY TYPE ==========
+    // Statistiques par type calculees par la base sur [start, end[ : une seule ligne par type transite.
+    // Les jambes credit des virements sont exclues : chaque virement compte une fois, en TRANSFER
+    public Map<TransactionType, TransactionTypeStats> aggregateByType(LocalDateTime start, LocalDateTime end) {
+        Map<TransactionType, TransactionTypeStats> stats = new EnumMap<>(TransactionType.class);
+        String sql = "SELECT type, COUNT(*) AS count, SUM(amount) AS total, AVG(amount) AS average, " +
+                "MIN(amount) AS min, MAX(amount) AS max " +
+                "FROM transaction WHERE date >= ? AND date < ? " +
+                "AND NOT (type = 'DEPOSIT' AND counterpartyId IS NOT NULL) GROUP BY type";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setTimestamp(1, Timestamp.valueOf(start));
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                TransactionType type = TransactionType.valueOf(rs.getString("type"));
+                stats.put(type, new TransactionTypeStats(
+                        type,
+                        rs.getLong("count"),
+                        rs.getDouble("total"),
+                        rs.getDouble("average"),
+                        rs.getDouble("min"),
+                        rs.getDouble("max")
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur d'agregation des transactions par type");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return stats;
+    }
+
+    // ========== KEYSET PAGINATION ==========
+    // Pagination par cle (date, id) : chaque page est une recherche d'index, quelle que soit sa position
+    public TransactionPage findPageByAccountId(Long accountId, TransactionPage.Cursor after, int pageSize) {
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction " +
+                "WHERE accountId = ? " +
+                (after != null ? "AND (date, id) < (?, ?) " : "") +
+                "ORDER BY date DESC, id DESC LIMIT ?";
+        return findPage(sql, accountId, after, pageSize);
+    }
+
+    public TransactionPage findPageByClientId(Long clientId, TransactionPage.Cursor after, int pageSize) {
+        String sql = "SELECT t.id, t.date, t.amount, t.type, t.location, t.accountId, t.counterpartyId " +
+                "FROM transaction t " +
+                "JOIN account a ON t.accountId = a.id " +
+                "WHERE a.clientId = ? " +
+                (after != null ? "AND (t.date, t.id) < (?, ?) " : "") +
+                "ORDER BY t.date DESC, t.id DESC LIMIT ?";
+        return findPage(sql, clientId, after, pageSize);
+    }
+
+    private TransactionPage findPage(String sql, Long ownerId, TransactionPage.Cursor after, int pageSize) {
+        List<Transaction> transactions = new ArrayList<>(pageSize + 1);
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            stmt.setLong(index++, ownerId);
+            if (after != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(after.date()));
+                stmt.setLong(index++, after.id());
+            }
+            // Une ligne de plus que la page pour savoir s'il existe une page suivante
+            stmt.setInt(index, pageSize + 1);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                transactions.add(mapResultSetToTransaction(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recuperation de la page de transactions");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+
+        if (transactions.size() <= pageSize) {
+            return new TransactionPage(transactions, null);
+        }
+        List<Transaction> page = transactions.subList(0, pageSize);
+        return new TransactionPage(page, TransactionPage.Cursor.after(page.get(pageSize - 1)));
+    }
+
+    // ========== QUERY ==========
+    // Compile tous les criteres de la requete en une seule instruction parametree
+    public List<Transaction> find(TransactionQuery query) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction");
+        appendWhere(sql, params, query);
+        switch (query.order()) {
+            case DATE_ASC -> sql.append(" ORDER BY date, id");
+            case DATE_DESC -> sql.append(" ORDER BY date DESC, id DESC");
+            case AMOUNT_ASC -> sql.append(" ORDER BY amount, id");
+            case AMOUNT_DESC -> sql.append(" ORDER BY amount DESC, id");
+            case NONE -> { }
+        }
+        if (query.hasLimit()) {
+            sql.append(" LIMIT ?");
+            params.add(query.limit());
+        }
+
+        List<Transaction> transactions = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            bindParams(stmt, params);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                transactions.add(mapResultSetToTransaction(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur d'execution de la requete de transactions");
+        } finally {
+            closeQuietly(rs, stmt, conn);
+        }
+        return transactions;
+    }
+
+    // Nombre de lignes correspondant aux criteres (tri et limite ignores)
+    public long count(TransactionQuery query) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM transaction");
+        appendWhere(sql, params, query);
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            bindParams(stmt, params);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de comptage de la requete de transactions");
+        } finally {
+            closeQuietly(rs, stmt, conn);
+        }
+        return 0;
+    }
+
+    private void appendWhere(StringBuilder sql, List<Object> params, TransactionQuery query) {
+        List<String> conditions = new ArrayList<>();
+        if (query.minAmount() != null) {
+            conditions.add("amount >= ?");
+            params.add(query.minAmount());
+        }
+        if (query.maxAmount() != null) {
+            conditions.add("amount <= ?");
+            params.add(query.maxAmount());
+        }
+        if (query.type() != null) {
+            conditions.add("type = ?");
+            params.add(query.type().name());
+        }
+        if (query.start() != null) {
+            conditions.add("date >= ?");
+            params.add(Timestamp.valueOf(query.start()));
+        }
+        if (query.end() != null) {
+            conditions.add("date <= ?");
+            params.add(Timestamp.valueOf(query.end()));
+        }
+        if (query.location() != null && !query.location().isBlank()) {
+            conditions.add("location ILIKE ? ESCAPE '\\'");
+            params.add("%" + escapeLike(query.location().strip()) + "%");
+        }
+        if (query.accountId() != null) {
+            conditions.add("accountId = ?");
+            params.add(query.accountId());
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+
+    private void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // ========== STREAMING READS ==========
+    // Les Stream retournes lisent via un curseur serveur : ils doivent etre fermes (try-with-resources)
+    // pour liberer le curseur et rendre la connexion au pool.
+    public Stream<Transaction> streamAll() {
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction ORDER BY date DESC";
+        return stream(sql, stmt -> { });
+    }
+
+    // Ordre chronologique croissant, stable a date egale : lecture en une passe par le detecteur de regles
+    public Stream<Transaction> streamAllChronological() {
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction ORDER BY date, id";
+        return stream(sql, stmt -> { });
+    }
+
+    public Stream<Transaction> streamByAccountId(Long accountId) {
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction WHERE accountId = ? ORDER BY date DESC";
+        return stream(sql, stmt -> stmt.setLong(1, accountId));
+    }
+
+    public Stream<Transaction> streamByClientId(Long clientId) {
+        String sql = "SELECT t.id, t.date, t.amount, t.type, t.location, t.accountId, t.counterpartyId " +
+                "FROM transaction t " +
+                "JOIN account a ON t.accountId = a.id " +
+                "WHERE a.clientId = ? " +
+                "ORDER BY t.date DESC";
+        return stream(sql, stmt -> stmt.setLong(1, clientId));
+    }
+
+    // Intervalle [start, end[ : le predicat sur date permet a PostgreSQL d'ecarter les autres partitions
+    public Stream<Transaction> streamByDateRange(LocalDateTime start, LocalDateTime end) {
+        String sql = "SELECT id, date, amount, type, location, accountId, counterpartyId FROM transaction " +
+                "WHERE date >= ? AND date < ? ORDER BY date DESC";
+        return stream(sql, stmt -> {
+            stmt.setTimestamp(1, Timestamp.valueOf(start));
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
+        });
+    }
+
+    private Stream<Transaction> stream(String sql, ParameterBinder binder) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            // Le pilote PostgreSQL n'utilise un curseur (fetchSize) qu'en dehors de l'autocommit
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            binder.bind(stmt);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("Erreur d'ouverture du curseur de transactions");
+            closeQuietly(rs, stmt, conn);
+            return Stream.empty();
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = stmt;
+        Connection connection = conn;
+        var spliterator = new Spliterators.AbstractSpliterator<Transaction>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Transaction> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapResultSetToTransaction(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Erreur de lecture du curseur de transactions", e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeQuietly(cursor, statement, connection));
+    }
+
+    // ========== COLUMNAR LOAD ==========
+    // Charge directement en colonnes, sans objet Transaction par ligne ; dates et centimes calcules en base.
+    // Les lignes sont triees par date croissante.
+    public TransactionColumns loadColumns() {
+        String sql = COLUMNS_SELECT + "ORDER BY date, id";
+        return loadColumns(sql, stmt -> { });
+    }
+
+    // Intervalle [start, end[
+    public TransactionColumns loadColumnsByDateRange(LocalDateTime start, LocalDateTime end) {
+        String sql = COLUMNS_SELECT + "WHERE date >= ? AND date < ? ORDER BY date, id";
+        return loadColumns(sql, stmt -> {
+            stmt.setTimestamp(1, Timestamp.valueOf(start));
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
+        });
+    }
+
+    private TransactionColumns loadColumns(String sql, ParameterBinder binder) {
+        TransactionColumns.Builder builder = new TransactionColumns.Builder();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            binder.bind(stmt);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                builder.add(
+                        rs.getLong("id"),
+                        rs.getLong("epochMillis"),
+                        rs.getLong("amountCents"),
+                        TransactionType.valueOf(rs.getString("type")),
+                        rs.getString("location"),
+                        rs.getLong("accountId")
+                );
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de chargement des transactions en colonnes");
+        } finally {
+            closeQuietly(rs, stmt, conn);
+        }
+        return builder.build();
+    }
+
+    @FunctionalInterface
+    private interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    // ========== HELPER METHODS ==========
+    private void rollbackQuietly(Connection conn) {
+        if (conn == null) return;
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'annulation de la transaction: " + e.getMessage());
+        }
+    }
+
+    private void closeQuietly(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        try {
+            if (rs != null) rs.close();
+        } catch (SQLException e) {
+            System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+        }
+        try {
+            if (stmt != null) stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+        }
+        try {
+            if (conn != null) conn.close();
+        } catch (SQLException e) {
+            System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, Transaction transaction) throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(transaction.date()));
+        stmt.setDouble(2, transaction.amount());
+        stmt.setString(3, transaction.type().name());
+        stmt.setString(4, transaction.location());
+        stmt.setLong(5, transaction.accountId());
+        setNullableLong(stmt, 6, transaction.counterpartyId());
+    }
+
+    private void setNullableLong(PreparedStatement stmt, int index, Long value) throws SQLException {
+        if (value != null) {
+            stmt.setLong(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+
     private Transaction mapResultSetToTransaction(ResultSet rs) throws SQLException {
         return new Transaction(
                 rs.getLong("id"),
                 rs.getTimestamp("date").toLocalDateTime(),
                 rs.getDouble("amount"),
                 TransactionType.valueOf(rs.getString("type")),
-                rs.getString("location"),
-                rs.getLong("accountId")
+                LocationDictionary.getInstance().intern(rs.getString("location")),
+                rs.getLong("accountId"),
+                rs.getObject("counterpartyId") != null ? rs.getLong("counterpartyId") : null
         );
     }
 }
\ No newline at end of file
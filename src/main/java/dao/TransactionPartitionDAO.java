@@ -0,0 +1,76 @@
+package dao;
+
+import util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class TransactionPartitionDAO {
+
+    // ========== ENSURE PARTITION ==========
+    // Cree la partition mensuelle si elle n'existe pas ; retourne son nom
+    public Optional<String> ensurePartition(YearMonth month) {
+        String sql = "SELECT ensure_transaction_partition(?)";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setDate(1, Date.valueOf(month.atDay(1)));
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de creation de la partition " + month + " : " + e.getMessage());
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    // ========== LIST PARTITIONS ==========
+    public List<String> findAll() {
+        List<String> partitions = new ArrayList<>();
+        String sql = "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'transaction'::regclass " +
+                "ORDER BY c.relname";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur de recuperation des partitions");
+        } finally {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur de fermeture des ressources: " + e.getMessage());
+            }
+        }
+        return partitions;
+    }
+}
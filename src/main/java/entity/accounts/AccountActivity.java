@@ -0,0 +1,20 @@
+package entity.accounts;
+
+import java.time.LocalDateTime;
+import java.util.OptionalDouble;
+
+// lastActivity est null si le compte n'a aucune transaction
+public record AccountActivity(
+        Long accountId,
+        long transactionCount,
+        double totalAmount,
+        LocalDateTime lastActivity
+) {
+    public static AccountActivity none(Long accountId) {
+        return new AccountActivity(accountId, 0, 0.0, null);
+    }
+
+    public OptionalDouble averageAmount() {
+        return transactionCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(totalAmount / transactionCount);
+    }
+}
@@ -0,0 +1,12 @@
+package entity.accounts;
+
+import java.time.LocalDateTime;
+
+// lastActivity et daysSinceLastActivity sont null si le compte n'a aucune transaction
+public record InactiveAccount(
+        Account account,
+        String ownerName,
+        LocalDateTime lastActivity,
+        Long daysSinceLastActivity
+) {
+}
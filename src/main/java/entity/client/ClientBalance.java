@@ -0,0 +1,8 @@
+package entity.client;
+
+public record ClientBalance(
+        Client client,
+        double totalBalance,
+        int accountCount
+) {
+}
@@ -0,0 +1,19 @@
+package entity.transactions;
+
+public record ImportReport(
+        long linesRead,
+        long imported,
+        long rejected,
+        long elapsedMillis
+) {
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{lignes=" + linesRead + ", importees=" + imported +
+                ", rejetees=" + rejected + ", duree=" + elapsedMillis + " ms" +
+                ", debit=" + String.format("%.0f", rowsPerSecond()) + " lignes/s}";
+    }
+}
@@ -0,0 +1,10 @@
+package entity.transactions;
+
+import java.util.List;
+
+// Transaction signalee et noms des regles qu'elle a declenchees
+public record SuspiciousTransaction(
+        Transaction transaction,
+        List<String> rules
+) {
+}
@@ -10,10 +10,25 @@ public record Transaction(
         double amount,
         TransactionType type,
         String location,
-        Long accountId
+        Long accountId,
+        Long counterpartyId
 ) {
+    public Transaction(Long id, LocalDateTime date, double amount, TransactionType type, String location, Long accountId) {
+        this(id, date, amount, type, location, accountId, null);
+    }
+
     public Transaction(LocalDateTime date, double amount, TransactionType type, String location, Long accountId) {
-        this(null, date, amount, type, location, accountId);
+        this(null, date, amount, type, location, accountId, null);
+    }
+
+    // Jambe credit d'un virement : DEPOSIT lie a un compte emetteur. Le montant est deja compte par la
+    // jambe debit (TRANSFER) : les statistiques par type l'excluent pour ne pas compter le virement deux fois
+    public boolean isTransferCredit() {
+        return type == TransactionType.DEPOSIT && counterpartyId != null;
+    }
+
+    public Transaction withId(Long id) {
+        return new Transaction(id, date, amount, type, location, accountId, counterpartyId);
     }
 
     @Override
@@ -21,6 +36,7 @@ public record Transaction(
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         return "Transaction{id=" + id + ", date=" + date.format(formatter) +
                 ", amount=" + amount + ", type=" + type +
-                ", location='" + location + "', accountId=" + accountId + "}";
+                ", location='" + location + "', accountId=" + accountId +
+                (counterpartyId != null ? ", counterpartyId=" + counterpartyId : "") + "}";
     }
-}
\ No newline at end of file
+}
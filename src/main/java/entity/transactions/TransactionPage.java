@@ -0,0 +1,21 @@
+package entity.transactions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Page d'historique triee par (date, id) decroissants ; next est la cle de reprise de la page suivante
+public record TransactionPage(
+        List<Transaction> transactions,
+        Cursor next
+) {
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public record Cursor(LocalDateTime date, Long id) {
+
+        public static Cursor after(Transaction transaction) {
+            return new Cursor(transaction.date(), transaction.id());
+        }
+    }
+}
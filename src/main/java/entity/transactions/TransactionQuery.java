@@ -0,0 +1,73 @@
+package entity.transactions;
+
+import enums.TransactionType;
+
+import java.time.LocalDateTime;
+
+// Requete composee sur les transactions : criteres combines (ET), tri et limite.
+// Un critere null est ignore ; les bornes de montant et de date sont incluses.
+// La meme requete s'execute en SQL (TransactionDAO.find) ou en memoire, en une seule passe.
+public record TransactionQuery(
+        Double minAmount,
+        Double maxAmount,
+        TransactionType type,
+        LocalDateTime start,
+        LocalDateTime end,
+        String location,
+        Long accountId,
+        Order order,
+        int limit
+) {
+    public static final int NO_LIMIT = 0;
+
+    public enum Order {
+        NONE,
+        DATE_ASC,
+        DATE_DESC,
+        AMOUNT_ASC,
+        AMOUNT_DESC
+    }
+
+    public static TransactionQuery all() {
+        return new TransactionQuery(null, null, null, null, null, null, null, Order.NONE, NO_LIMIT);
+    }
+
+    // ========== CRITERIA ==========
+    public TransactionQuery amountBetween(double min, double max) {
+        return new TransactionQuery(min, max, type, start, end, location, accountId, order, limit);
+    }
+
+    public TransactionQuery amountAbove(double min) {
+        return new TransactionQuery(min, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    public TransactionQuery ofType(TransactionType type) {
+        return new TransactionQuery(minAmount, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    public TransactionQuery between(LocalDateTime start, LocalDateTime end) {
+        return new TransactionQuery(minAmount, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    // Sous-chaine du lieu, casse ignoree
+    public TransactionQuery locationContaining(String location) {
+        return new TransactionQuery(minAmount, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    public TransactionQuery forAccount(Long accountId) {
+        return new TransactionQuery(minAmount, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    // ========== SORT / LIMIT ==========
+    public TransactionQuery orderBy(Order order) {
+        return new TransactionQuery(minAmount, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    public TransactionQuery limit(int limit) {
+        return new TransactionQuery(minAmount, maxAmount, type, start, end, location, accountId, order, limit);
+    }
+
+    public boolean hasLimit() {
+        return limit > 0;
+    }
+}
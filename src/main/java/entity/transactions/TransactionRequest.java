@@ -0,0 +1,13 @@
+package entity.transactions;
+
+import enums.TransactionType;
+import java.time.LocalDateTime;
+
+public record TransactionRequest(
+        LocalDateTime date,
+        double amount,
+        TransactionType type,
+        String location,
+        String accountNumber
+) {
+}
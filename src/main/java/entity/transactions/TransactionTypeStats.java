@@ -0,0 +1,13 @@
+package entity.transactions;
+
+import enums.TransactionType;
+
+public record TransactionTypeStats(
+        TransactionType type,
+        long count,
+        double total,
+        double average,
+        double min,
+        double max
+) {
+}
@@ -0,0 +1,8 @@
+package entity.transactions;
+
+// Virement en partie double : debit (TRANSFER) sur le compte emetteur, credit (DEPOSIT) sur le beneficiaire
+public record Transfer(
+        Transaction debit,
+        Transaction credit
+) {
+}
@@ -0,0 +1,9 @@
+package entity.transactions;
+
+public record TransferRequest(
+        String fromAccountNumber,
+        String toAccountNumber,
+        double amount,
+        String location
+) {
+}
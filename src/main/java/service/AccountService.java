@@ -1,13 +1,14 @@
 package service;
 
+import dao.AccountActivityDAO;
 import dao.AccountDAO;
+import dao.AccountNumberGenerator;
 import dao.ClientDAO;
-import dao.TransactionDAO;
 import entity.accounts.Account;
+import entity.accounts.AccountActivity;
 import entity.accounts.CheckingAccount;
 import entity.accounts.SavingsAccount;
 import entity.client.Client;
-import entity.transactions.Transaction;
 import util.Validation;
 
 import java.sql.SQLException;
@@ -19,30 +20,18 @@ public class AccountService {
 
     private final AccountDAO accountDAO;
     private final ClientDAO clientDAO;
-    private final TransactionDAO transactionDAO;
+    private final AccountActivityDAO activityDAO;
 
     public AccountService() {
         this.accountDAO = new AccountDAO();
         this.clientDAO = new ClientDAO();
-        this.transactionDAO = new TransactionDAO();
+        this.activityDAO = new AccountActivityDAO();
     }
 
     // ========== GENERATE ACCOUNT NUMBER ==========
-    private String generateNextAccountNumber() {
-        Optional<String> lastNumber = accountDAO.getLastAccountNumber();
-
-        if (lastNumber.isEmpty()) {
-            return "CPT-10000";
-        }
-
-        // Extraire le numéro de "CPT-10005" -> 10005
-        String numberPart = lastNumber.get().replace("CPT-", "");
-        int currentNumber = Integer.parseInt(numberPart);
-
-        // Incrémenter
-        int nextNumber = currentNumber + 1;
-
-        return "CPT-" + nextNumber;
+    private Optional<String> generateNextAccountNumber() {
+        // Numero pris dans le bloc reserve par cette JVM : pas d'aller-retour base ni de doublon entre createurs concurrents
+        return AccountNumberGenerator.getInstance().nextNumber();
     }
 
     // ========== CREATE CHECKING ACCOUNT ==========
@@ -68,7 +57,12 @@ public class AccountService {
             return false;
         }
 
-        String accountNumber = generateNextAccountNumber();
+        Optional<String> number = generateNextAccountNumber();
+        if (number.isEmpty()) {
+            System.err.println("Erreur : Aucun numero de compte disponible");
+            return false;
+        }
+        String accountNumber = number.get();
 
         try {
             var account = new CheckingAccount(accountNumber, balance, clientId, overdraft);
@@ -108,7 +102,12 @@ public class AccountService {
             return false;
         }
 
-        String accountNumber = generateNextAccountNumber();
+        Optional<String> number = generateNextAccountNumber();
+        if (number.isEmpty()) {
+            System.err.println("Erreur : Aucun numero de compte disponible");
+            return false;
+        }
+        String accountNumber = number.get();
 
         try {
             var account = new SavingsAccount(accountNumber, balance, clientId, interest);
@@ -143,9 +142,8 @@ public class AccountService {
             return false;
         }
 
-        var account = accountOpt.get();
-        account.setBalance(newBalance);
-        return accountDAO.update(account);
+        // Ecriture ciblee du solde, serialisee avec les postings du compte
+        return PostingEngine.getInstance().setBalance(accountOpt.get().getId(), newBalance);
     }
 
     // ========== UPDATE OVERDRAFT (Checking Account) ==========
@@ -218,10 +216,12 @@ public class AccountService {
         }
         long id = account.get().getId();
 
-        List<Transaction> transactions = transactionDAO.findByAccountId(id);
-        if (!transactions.isEmpty()) {
+        long transactionCount = activityDAO.findByAccountId(id)
+                .map(AccountActivity::transactionCount)
+                .orElse(0L);
+        if (transactionCount > 0) {
             System.err.println("Erreur : Impossible de supprimer le compte. Il possede " +
-                    transactions.size() + " transaction(s)");
+                    transactionCount + " transaction(s)");
             return false;
         }
 
@@ -303,7 +303,8 @@ public class AccountService {
 
         var account = accountOpt.get();
         Optional<Client> clientOpt = clientDAO.findById(account.getClientId());
-        List<Transaction> transactions = transactionDAO.findByAccountId(accountId);
+        AccountActivity activity = activityDAO.findByAccountId(accountId)
+                .orElse(AccountActivity.none(accountId));
 
         System.out.println("\n========== RAPPORT COMPTE ==========");
         System.out.println("ID : " + account.getId());
@@ -323,7 +324,10 @@ public class AccountService {
                 System.out.println("Proprietaire : " + client.name() + " (" + client.email() + ")")
         );
 
-        System.out.println("Nombre de transactions : " + transactions.size());
+        System.out.println("Nombre de transactions : " + activity.transactionCount());
+        if (activity.lastActivity() != null) {
+            System.out.println("Derniere activite : " + activity.lastActivity());
+        }
         System.out.println("====================================\n");
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package service;
 
+import analytics.TrigramIndex;
 import dao.AccountDAO;
 import dao.ClientDAO;
 import entity.accounts.Account;
@@ -112,6 +113,21 @@ public class ClientService {
         return clientDAO.findByName(name.trim());
     }
 
+    // ========== IN-MEMORY NAME SEARCH ==========
+    // Index de trigrammes sur les noms : meme resultat que findClientsByName (ILIKE '%nom%')
+    // sans requete, pour les recherches repetees. L'index doit etre reconstruit apres modification.
+    public TrigramIndex<Client> buildNameIndex() {
+        return TrigramIndex.of(clientDAO.findAll(), Client::name);
+    }
+
+    public List<Client> findClientsByName(TrigramIndex<Client> index, String name) {
+        if (!Validation.isValidString(name)) {
+            System.err.println("Erreur : Le nom ne peut pas etre vide");
+            return List.of();
+        }
+        return index.search(name.trim());
+    }
+
     // ========== READ ALL ==========
     public List<Client> getAllClients() {
         return clientDAO.findAll();
@@ -182,15 +198,16 @@ public class ClientService {
         System.out.println("Nombre de comptes : " + accounts.size());
 
         if (!accounts.isEmpty()) {
-            double totalBalance = getTotalBalance(clientId);
+            // Les comptes deja charges servent au total, au max et au min : une seule requete
+            double totalBalance = accounts.stream().mapToDouble(Account::getBalance).sum();
             System.out.println("Solde total : " + String.format("%.2f", totalBalance) + " MAD");
 
-            getMaxBalanceAccount(clientId).ifPresent(account ->
+            accounts.stream().max(Comparator.comparingDouble(Account::getBalance)).ifPresent(account ->
                     System.out.println("Compte avec solde max : " + account.getNumber() +
                             " (" + String.format("%.2f", account.getBalance()) + " MAD)")
             );
 
-            getMinBalanceAccount(clientId).ifPresent(account ->
+            accounts.stream().min(Comparator.comparingDouble(Account::getBalance)).ifPresent(account ->
                     System.out.println("Compte avec solde min : " + account.getNumber() +
                             " (" + String.format("%.2f", account.getBalance()) + " MAD)")
             );
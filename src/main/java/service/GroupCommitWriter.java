@@ -0,0 +1,252 @@
+package service;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import entity.transactions.Transaction;
+import util.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Commit groupe : les transactions soumises par plusieurs threads sont accumulees pendant au plus
+// maxWaitMillis ou jusqu'a maxBatch lignes, puis postees par un seul thread d'ecriture avec un seul commit.
+// Le future de chaque appelant n'est complete qu'apres ce commit.
+// Un lot coute quelques allers-retours quel que soit sa taille : verrouillage des comptes, une variation
+// nette par compte, insertions en lot. Un debit refuse (solde insuffisant, compte introuvable) ne concerne
+// que sa ligne ; une erreur SQL fait echouer tout le lot, et chaque appelant du lot recoit l'exception.
+public class GroupCommitWriter implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AccountDAO accountDAO = new AccountDAO();
+    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // ========== METRIQUES ==========
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private final AtomicLong maxBatchFill = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    public GroupCommitWriter(int maxBatch, long maxWaitMillis) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit etre positive");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Le delai d'attente doit etre positif ou nul");
+        }
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.writer = new Thread(this::run, "group-commit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // ========== SUBMIT ==========
+    // Le future retourne la transaction creee, ou vide si le compte est introuvable ou le debit refuse
+    public CompletableFuture<Optional<Transaction>> submit(Transaction transaction) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Commit groupe arrete"));
+        }
+        Pending pending = new Pending(transaction, new CompletableFuture<>());
+        queue.add(pending);
+        // close() a pu vider la file entre le test et l'ajout : personne d'autre ne completerait ce future
+        if (!running && queue.remove(pending)) {
+            pending.future().completeExceptionally(new IllegalStateException("Commit groupe arrete"));
+        }
+        return pending.future();
+    }
+
+    // ========== WRITER LOOP ==========
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() attend la fin du lot en cours : le lot deja collecte est tout de meme ecrit
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        List<Pending> accepted = new ArrayList<>(batch.size());
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // Un SELECT FOR UPDATE pour tous les comptes du lot, dans l'ordre des identifiants
+            Map<Long, BigDecimal> available = accountDAO.lockAvailableBalances(conn,
+                    batch.stream().map(p -> p.transaction().accountId()).collect(Collectors.toSet()));
+
+            // Decision par ligne en memoire, dans l'ordre de soumission : meme regle que l'UPDATE conditionnel
+            List<Pending> refused = new ArrayList<>();
+            for (Pending pending : batch) {
+                Transaction transaction = pending.transaction();
+                BigDecimal funds = available.get(transaction.accountId());
+                BigDecimal delta = BigDecimal.valueOf(PostingEngine.balanceDelta(transaction));
+                if (funds == null || (delta.signum() < 0 && funds.add(delta).signum() < 0)) {
+                    refused.add(pending);
+                    continue;
+                }
+                available.put(transaction.accountId(), funds.add(delta));
+                deltas.merge(transaction.accountId(), delta, BigDecimal::add);
+                accepted.add(pending);
+            }
+
+            // Une variation nette par compte, puis toutes les insertions, en deux lots
+            accountDAO.applyBalanceDeltas(conn, deltas);
+            List<Transaction> created = transactionDAO.insertAll(conn, accepted.stream().map(Pending::transaction).toList());
+
+            long start = System.nanoTime();
+            conn.commit();
+            recordCommit(System.nanoTime() - start, batch.size(), accepted.size());
+
+            rejectedCount.addAndGet(refused.size());
+            refused.forEach(p -> p.future().complete(Optional.empty()));
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).future().complete(Optional.of(created.get(i)));
+            }
+        } catch (SQLException e) {
+            System.err.println("Echec du commit groupe (" + batch.size() + " transactions) : " + e.getMessage());
+            failedBatchCount.incrementAndGet();
+            rollbackQuietly(conn);
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        } finally {
+            // Apres le commit : une lecture pendant le lot a pu remettre l'ancien solde en cache
+            batch.forEach(p -> AccountDAO.invalidate(p.transaction().accountId()));
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("Erreur de fermeture de la connexion: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ========== STATS ==========
+    public Stats getStats() {
+        long batches = batchCount.get();
+        double avgFill = batches == 0 ? 0.0 : (double) submittedCount.get() / batches;
+        double avgCommitMillis = batches == 0 ? 0.0 : totalCommitNanos.get() / 1_000_000.0 / batches;
+        return new Stats(
+                maxBatch,
+                batches,
+                rowCount.get(),
+                rejectedCount.get(),
+                failedBatchCount.get(),
+                queue.size(),
+                avgFill,
+                maxBatchFill.get(),
+                avgCommitMillis,
+                maxCommitNanos.get() / 1_000_000.0
+        );
+    }
+
+    // ========== SHUTDOWN ==========
+    // Ecrit les transactions deja soumises puis arrete le thread d'ecriture
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Soumissions arrivees pendant l'arret
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new IllegalStateException("Commit groupe arrete"));
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+    private void recordCommit(long commitNanos, int batchSize, int rows) {
+        batchCount.incrementAndGet();
+        rowCount.addAndGet(rows);
+        submittedCount.addAndGet(batchSize);
+        maxBatchFill.accumulateAndGet(batchSize, Math::max);
+        totalCommitNanos.addAndGet(commitNanos);
+        maxCommitNanos.accumulateAndGet(commitNanos, Math::max);
+    }
+
+    private void rollbackQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de l'annulation de la transaction: " + e.getMessage());
+        }
+    }
+
+    private record Pending(Transaction transaction, CompletableFuture<Optional<Transaction>> future) {
+    }
+
+    public record Stats(
+            int maxBatch,
+            long batchCount,
+            long rowCount,
+            long rejectedCount,
+            long failedBatchCount,
+            int queued,
+            double avgBatchFill,
+            long maxBatchFill,
+            double avgCommitMillis,
+            double maxCommitMillis
+    ) {
+        @Override
+        public String toString() {
+            return "GroupCommit{lot max=" + maxBatch + ", lots=" + batchCount + ", lignes=" + rowCount +
+                    ", refusees=" + rejectedCount + ", lots en echec=" + failedBatchCount +
+                    ", en attente=" + queued +
+                    ", remplissage moy=" + String.format("%.1f", avgBatchFill) + " (max " + maxBatchFill + ")" +
+                    ", commit moy=" + String.format("%.2f", avgCommitMillis) + " ms" +
+                    ", commit max=" + String.format("%.2f", maxCommitMillis) + " ms}";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package service;
+
+import dao.TransactionPartitionDAO;
+
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Tache de maintenance : garde toujours les partitions des prochains mois creees a l'avance,
+// pour que les insertions n'aboutissent pas dans la partition par defaut.
+public class PartitionMaintenanceService {
+
+    public static final int DEFAULT_MONTHS_AHEAD = 3;
+
+    private final TransactionPartitionDAO partitionDAO;
+    private ScheduledExecutorService scheduler;
+
+    public PartitionMaintenanceService() {
+        this.partitionDAO = new TransactionPartitionDAO();
+    }
+
+    // ========== ENSURE UPCOMING PARTITIONS ==========
+    public boolean ensureUpcomingPartitions(int monthsAhead) {
+        if (monthsAhead < 0) {
+            System.err.println("Erreur : Le nombre de mois doit etre positif ou nul");
+            return false;
+        }
+
+        YearMonth current = YearMonth.now();
+        boolean success = true;
+        for (int i = 0; i <= monthsAhead; i++) {
+            success &= partitionDAO.ensurePartition(current.plusMonths(i)).isPresent();
+        }
+        return success;
+    }
+
+    // ========== SCHEDULING ==========
+    // Execute la maintenance tout de suite puis une fois par jour, sur un thread demon
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> ensureUpcomingPartitions(DEFAULT_MONTHS_AHEAD), 0, 1, TimeUnit.DAYS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
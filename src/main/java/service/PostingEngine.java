@@ -0,0 +1,177 @@
+package service;
+
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import entity.transactions.Transaction;
+import entity.transactions.Transfer;
+import enums.TransactionType;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Poste une transaction et son effet sur le solde dans une seule transaction SQL.
+// Les verrous en memoire sont repartis par compte (lock striping) : deux postings sur le meme compte
+// se suivent, deux postings sur des comptes differents avancent en parallele. L'UPDATE conditionnel
+// garantit le decouvert autorise meme face a d'autres processus.
+public class PostingEngine {
+
+    // Puissance de deux : l'indice de verrou est un simple masque
+    private static final int STRIPES = 256;
+    private static final PostingEngine INSTANCE = new PostingEngine();
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+
+    private PostingEngine() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+    }
+
+    public static PostingEngine getInstance() {
+        return INSTANCE;
+    }
+
+    // ========== POST ==========
+    // Retourne la transaction creee, ou vide si le compte est introuvable ou le debit refuse
+    public Optional<Transaction> post(Transaction transaction) throws SQLException {
+        ReentrantLock lock = lockFor(transaction.accountId());
+        lock.lock();
+        try {
+            Connection conn = DatabaseConnection.getConnection();
+            try {
+                conn.setAutoCommit(false);
+                Optional<Transaction> posted = postWithin(conn, transaction);
+                if (posted.isPresent()) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return posted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.close();
+                AccountDAO.invalidate(transaction.accountId());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Solde puis insertion, dans la transaction SQL de l'appelant (qui valide ou annule)
+    Optional<Transaction> postWithin(Connection conn, Transaction transaction) throws SQLException {
+        if (!accountDAO.applyBalanceDelta(conn, transaction.accountId(), balanceDelta(transaction))) {
+            System.err.println("Erreur : Solde insuffisant ou compte introuvable (ID : " + transaction.accountId() + ")");
+            return Optional.empty();
+        }
+        return transactionDAO.create(conn, transaction);
+    }
+
+    // ========== TRANSFER ==========
+    // Virement en partie double : debit et credit valides ou annules ensemble.
+    // Les deux verrous sont pris dans l'ordre des indices de verrou et les lignes de compte
+    // dans l'ordre des identifiants : deux virements croises ne peuvent pas s'interbloquer.
+    public Optional<Transfer> transfer(Long fromAccountId, Long toAccountId, double amount,
+                                       String location, LocalDateTime date) throws SQLException {
+        if (fromAccountId.equals(toAccountId)) {
+            System.err.println("Erreur : Le compte emetteur et le compte beneficiaire sont identiques");
+            return Optional.empty();
+        }
+
+        Transaction debit = new Transaction(null, date, amount, TransactionType.TRANSFER, location, fromAccountId, toAccountId);
+        Transaction credit = new Transaction(null, date, amount, TransactionType.DEPOSIT, location, toAccountId, fromAccountId);
+
+        int fromStripe = stripeOf(fromAccountId);
+        int toStripe = stripeOf(toAccountId);
+        ReentrantLock first = locks[Math.min(fromStripe, toStripe)];
+        ReentrantLock second = locks[Math.max(fromStripe, toStripe)];
+
+        first.lock();
+        try {
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                Connection conn = DatabaseConnection.getConnection();
+                try {
+                    conn.setAutoCommit(false);
+                    Optional<Transfer> posted = transferWithin(conn, debit, credit);
+                    if (posted.isPresent()) {
+                        conn.commit();
+                    } else {
+                        conn.rollback();
+                    }
+                    return posted;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.close();
+                    AccountDAO.invalidate(fromAccountId);
+                    AccountDAO.invalidate(toAccountId);
+                }
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    private Optional<Transfer> transferWithin(Connection conn, Transaction debit, Transaction credit) throws SQLException {
+        // Les UPDATE de solde suivent l'ordre des identifiants : verrous de ligne pris dans un ordre global
+        boolean debitFirst = debit.accountId() < credit.accountId();
+        Optional<Transaction> firstPosted = postWithin(conn, debitFirst ? debit : credit);
+        if (firstPosted.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Transaction> secondPosted = postWithin(conn, debitFirst ? credit : debit);
+        if (secondPosted.isEmpty()) {
+            return Optional.empty();
+        }
+        return debitFirst
+                ? Optional.of(new Transfer(firstPosted.get(), secondPosted.get()))
+                : Optional.of(new Transfer(secondPosted.get(), firstPosted.get()));
+    }
+
+    // ========== SET BALANCE ==========
+    // Correction manuelle du solde, serialisee avec les postings du meme compte
+    public boolean setBalance(Long accountId, double newBalance) {
+        ReentrantLock lock = lockFor(accountId);
+        lock.lock();
+        try {
+            return accountDAO.updateBalance(accountId, newBalance);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+    // Un versement (ou la jambe credit d'un virement) credite le compte ; un retrait ou un virement emis le debite
+    static double balanceDelta(Transaction transaction) {
+        return switch (transaction.type()) {
+            case DEPOSIT -> transaction.amount();
+            case WITHDRAWAL, TRANSFER -> -transaction.amount();
+        };
+    }
+
+    ReentrantLock lockFor(Long accountId) {
+        return locks[stripeOf(accountId)];
+    }
+
+    static int stripeOf(Long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (STRIPES - 1);
+    }
+}
@@ -4,13 +4,16 @@ import dao.AccountDAO;
 import dao.ClientDAO;
 import dao.TransactionDAO;
 import entity.accounts.Account;
+import entity.accounts.InactiveAccount;
 import entity.client.Client;
+import entity.client.ClientBalance;
+import entity.transactions.SuspiciousTransaction;
 import entity.transactions.Transaction;
+import entity.transactions.TransactionTypeStats;
 import enums.TransactionType;
 
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,39 +31,70 @@ public class ReportService {
         this.transactionService = new TransactionService();
     }
 
-    // ========== TOP 5 CLIENTS BY BALANCE ==========
+    // ========== TOP CLIENTS BY BALANCE ==========
+    public List<ClientBalance> getTopClientsByBalance(int n) {
+        if (n <= 0) {
+            System.err.println("Erreur : Le nombre de clients doit etre positif");
+            return List.of();
+        }
+        return clientDAO.findTopByBalance(n);
+    }
+
+    // Version en memoire (donnees deja chargees) : une passe sur les comptes, puis un tas borne a n clients
+    public List<ClientBalance> getTopClientsByBalance(Collection<Client> clients, Collection<Account> accounts, int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+
+        Map<Long, double[]> totals = new HashMap<>();
+        for (Account account : accounts) {
+            double[] total = totals.computeIfAbsent(account.getClientId(), id -> new double[2]);
+            total[0] += account.getBalance();
+            total[1]++;
+        }
+
+        Comparator<ClientBalance> ranking = Comparator.comparingDouble(ClientBalance::totalBalance)
+                .thenComparing(balance -> balance.client().id(), Comparator.reverseOrder());
+        PriorityQueue<ClientBalance> heap = new PriorityQueue<>(n + 1, ranking);
+
+        for (Client client : clients) {
+            double[] total = totals.getOrDefault(client.id(), new double[2]);
+            heap.offer(new ClientBalance(client, total[0], (int) total[1]));
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+
+        List<ClientBalance> top = new ArrayList<>(heap);
+        top.sort(ranking.reversed());
+        return top;
+    }
+
     public List<Map.Entry<Client, Double>> getTop5ClientsByBalance() {
-        var allClients = clientDAO.findAll();
-
-        return allClients.stream()
-                .map(client -> {
-                    double totalBalance = accountDAO.findByClientId(client.id()).stream()
-                            .mapToDouble(Account::getBalance)
-                            .sum();
-                    return Map.entry(client, totalBalance);
-                })
-                .sorted(Map.Entry.<Client, Double>comparingByValue().reversed())
-                .limit(5)
+        return getTopClientsByBalance(5).stream()
+                .map(balance -> Map.entry(balance.client(), balance.totalBalance()))
                 .toList();
     }
 
     public void displayTop5ClientsByBalance() {
-        var top5 = getTop5ClientsByBalance();
+        displayTopClientsByBalance(5);
+    }
 
-        System.out.println("\n========== TOP 5 CLIENTS PAR SOLDE ==========");
+    public void displayTopClientsByBalance(int n) {
+        var top = getTopClientsByBalance(n);
 
-        if (top5.isEmpty()) {
+        System.out.println("\n========== TOP " + n + " CLIENTS PAR SOLDE ==========");
+
+        if (top.isEmpty()) {
             System.out.println("Aucun client trouve");
         } else {
             int rank = 1;
-            for (var entry : top5) {
-                var client = entry.getKey();
-                double balance = entry.getValue();
-                int accountCount = accountDAO.findByClientId(client.id()).size();
+            for (var entry : top) {
+                var client = entry.client();
 
                 System.out.println(rank + ". " + client.name() + " (" + client.email() + ")");
-                System.out.println("   Solde total : " + String.format("%.2f", balance) + " MAD");
-                System.out.println("   Nombre de comptes : " + accountCount);
+                System.out.println("   Solde total : " + String.format("%.2f", entry.totalBalance()) + " MAD");
+                System.out.println("   Nombre de comptes : " + entry.accountCount());
                 rank++;
             }
         }
@@ -69,54 +103,68 @@ public class ReportService {
     }
 
     // ========== MONTHLY REPORT ==========
-    public Map<TransactionType, Long> getTransactionCountByType(YearMonth month) {
-        var allTransactions = transactionDAO.findAll();
+    // Calcul en base : une requete GROUP BY type limitee au mois
+    public Map<TransactionType, TransactionTypeStats> getMonthlyStatsByType(YearMonth month) {
+        return transactionDAO.aggregateByType(month.atDay(1).atStartOfDay(),
+                month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    // Calcul en memoire, en une passe, pour des transactions qui ne viennent pas de la base
+    public Map<TransactionType, TransactionTypeStats> getMonthlyStatsByType(Collection<Transaction> transactions, YearMonth month) {
+        Map<TransactionType, TransactionTypeStats> stats = new EnumMap<>(TransactionType.class);
 
-        return allTransactions.stream()
+        transactions.stream()
                 .filter(t -> YearMonth.from(t.date()).equals(month))
+                .filter(t -> !t.isTransferCredit())
                 .collect(Collectors.groupingBy(
                         Transaction::type,
-                        Collectors.counting()
-                ));
+                        Collectors.summarizingDouble(Transaction::amount)
+                ))
+                .forEach((type, summary) -> stats.put(type, new TransactionTypeStats(
+                        type,
+                        summary.getCount(),
+                        summary.getSum(),
+                        summary.getAverage(),
+                        summary.getMin(),
+                        summary.getMax()
+                )));
+        return stats;
     }
 
-    public Map<TransactionType, Double> getTransactionVolumeByType(YearMonth month) {
-        var allTransactions = transactionDAO.findAll();
+    public Map<TransactionType, Long> getTransactionCountByType(YearMonth month) {
+        Map<TransactionType, Long> counts = new EnumMap<>(TransactionType.class);
+        getMonthlyStatsByType(month).forEach((type, stats) -> counts.put(type, stats.count()));
+        return counts;
+    }
 
-        return allTransactions.stream()
-                .filter(t -> YearMonth.from(t.date()).equals(month))
-                .collect(Collectors.groupingBy(
-                        Transaction::type,
-                        Collectors.summingDouble(Transaction::amount)
-                ));
+    public Map<TransactionType, Double> getTransactionVolumeByType(YearMonth month) {
+        Map<TransactionType, Double> volumes = new EnumMap<>(TransactionType.class);
+        getMonthlyStatsByType(month).forEach((type, stats) -> volumes.put(type, stats.total()));
+        return volumes;
     }
 
     public void displayMonthlyReport(YearMonth month) {
-        var countByType = getTransactionCountByType(month);
-        var volumeByType = getTransactionVolumeByType(month);
+        var statsByType = getMonthlyStatsByType(month);
 
         System.out.println("\n========== RAPPORT MENSUEL : " + month + " ==========");
 
-        if (countByType.isEmpty()) {
+        if (statsByType.isEmpty()) {
             System.out.println("Aucune transaction pour ce mois");
         } else {
-            long totalCount = countByType.values().stream().mapToLong(Long::longValue).sum();
-            double totalVolume = volumeByType.values().stream().mapToDouble(Double::doubleValue).sum();
+            long totalCount = statsByType.values().stream().mapToLong(TransactionTypeStats::count).sum();
+            double totalVolume = statsByType.values().stream().mapToDouble(TransactionTypeStats::total).sum();
 
             System.out.println("Nombre total de transactions : " + totalCount);
             System.out.println("Volume total : " + String.format("%.2f", totalVolume) + " MAD");
             System.out.println("\n--- Details par type ---");
 
-            for (TransactionType type : TransactionType.values()) {
-                long count = countByType.getOrDefault(type, 0L);
-                double volume = volumeByType.getOrDefault(type, 0.0);
-
-                if (count > 0) {
-                    System.out.println(type + " :");
-                    System.out.println("  Nombre : " + count);
-                    System.out.println("  Volume : " + String.format("%.2f", volume) + " MAD");
-                    System.out.println("  Moyenne : " + String.format("%.2f", volume / count) + " MAD");
-                }
+            for (var stats : statsByType.values()) {
+                System.out.println(stats.type() + " :");
+                System.out.println("  Nombre : " + stats.count());
+                System.out.println("  Volume : " + String.format("%.2f", stats.total()) + " MAD");
+                System.out.println("  Moyenne : " + String.format("%.2f", stats.average()) + " MAD");
+                System.out.println("  Minimum : " + String.format("%.2f", stats.min()) + " MAD");
+                System.out.println("  Maximum : " + String.format("%.2f", stats.max()) + " MAD");
             }
         }
 
@@ -124,21 +172,12 @@ public class ReportService {
     }
 
     // ========== DETECT SUSPICIOUS TRANSACTIONS ==========
-    public List<Transaction> detectSuspiciousTransactions(double amountThreshold, String usualCountry, long maxMinutesBetween) {
-        var allTransactions = transactionDAO.findAll();
-
-        var highAmount = transactionService.detectHighAmountTransactions(allTransactions, amountThreshold);
-        var unusualLocation = transactionService.detectUnusualLocation(allTransactions, usualCountry);
-        var highFrequency = transactionService.detectHighFrequency(allTransactions, maxMinutesBetween);
-
-        Set<Transaction> suspicious = new HashSet<>();
-        suspicious.addAll(highAmount);
-        suspicious.addAll(unusualLocation);
-        suspicious.addAll(highFrequency);
-
-        return suspicious.stream()
-                .sorted(Comparator.comparing(Transaction::date).reversed())
-                .toList();
+    public List<SuspiciousTransaction> detectSuspiciousTransactions(double amountThreshold, String usualCountry, long maxMinutesBetween) {
+        // Regles evaluees au fil du curseur : memoire limitee aux comptes et aux transactions signalees
+        var rules = transactionService.suspicionRules(amountThreshold, usualCountry, maxMinutesBetween);
+        try (var transactions = transactionDAO.streamAllChronological()) {
+            return transactionService.findSuspicious(transactions, rules);
+        }
     }
 
     public void displaySuspiciousTransactions(double amountThreshold, String usualCountry, long maxMinutesBetween) {
@@ -154,16 +193,31 @@ public class ReportService {
         if (suspicious.isEmpty()) {
             System.out.println("Aucune transaction suspecte detectee");
         } else {
+            // Proprietaires resolus en deux requetes groupees (comptes puis clients), pas une par transaction
+            Map<Long, Account> accounts = accountDAO.findByIds(suspicious.stream()
+                    .map(s -> s.transaction().accountId())
+                    .collect(Collectors.toSet()));
+            Map<Long, Client> owners = clientDAO.findByIds(accounts.values().stream()
+                    .map(Account::getClientId)
+                    .collect(Collectors.toSet()));
+
             System.out.println("Nombre de transactions suspectes : " + suspicious.size());
             System.out.println("\nDetails :");
 
-            for (var transaction : suspicious) {
+            for (var entry : suspicious) {
+                var transaction = entry.transaction();
                 System.out.println("  - ID : " + transaction.id());
                 System.out.println("    Date : " + transaction.date());
                 System.out.println("    Montant : " + String.format("%.2f", transaction.amount()) + " MAD");
                 System.out.println("    Type : " + transaction.type());
                 System.out.println("    Lieu : " + transaction.location());
                 System.out.println("    Compte ID : " + transaction.accountId());
+                Account account = accounts.get(transaction.accountId());
+                Client owner = account != null ? owners.get(account.getClientId()) : null;
+                if (owner != null) {
+                    System.out.println("    Proprietaire : " + owner.name());
+                }
+                System.out.println("    Regles declenchees : " + String.join(", ", entry.rules()));
                 System.out.println();
             }
         }
@@ -172,34 +226,20 @@ public class ReportService {
     }
 
     // ========== IDENTIFY INACTIVE ACCOUNTS ==========
-    public List<Account> findInactiveAccounts(int daysInactive) {
-        var allAccounts = accountDAO.findAll();
-        var now = LocalDateTime.now();
-
-        return allAccounts.stream()
-                .filter(account -> {
-                    var transactions = transactionDAO.findByAccountId(account.getId());
-
-                    if (transactions.isEmpty()) {
-                        return true;
-                    }
-
-                    var lastTransaction = transactions.stream()
-                            .max(Comparator.comparing(Transaction::date))
-                            .orElse(null);
-
-                    if (lastTransaction == null) {
-                        return true;
-                    }
+    public List<InactiveAccount> getInactiveAccounts(int daysInactive) {
+        // Inactif si plus de daysInactive jours entiers se sont ecoules depuis la derniere transaction
+        var cutoff = LocalDateTime.now().minusDays(daysInactive + 1L);
+        return accountDAO.findInactiveSince(cutoff);
+    }
 
-                    long daysSinceLastTransaction = ChronoUnit.DAYS.between(lastTransaction.date(), now);
-                    return daysSinceLastTransaction > daysInactive;
-                })
+    public List<Account> findInactiveAccounts(int daysInactive) {
+        return getInactiveAccounts(daysInactive).stream()
+                .map(InactiveAccount::account)
                 .toList();
     }
 
     public void displayInactiveAccounts(int daysInactive) {
-        var inactiveAccounts = findInactiveAccounts(daysInactive);
+        var inactiveAccounts = getInactiveAccounts(daysInactive);
 
         System.out.println("\n========== COMPTES INACTIFS ==========");
         System.out.println("Critere : Aucune transaction depuis " + daysInactive + " jours");
@@ -211,26 +251,18 @@ public class ReportService {
             System.out.println("Nombre de comptes inactifs : " + inactiveAccounts.size());
             System.out.println("\nDetails :");
 
-            for (var account : inactiveAccounts) {
-                var clientOpt = clientDAO.findById(account.getClientId());
-                var transactions = transactionDAO.findByAccountId(account.getId());
+            for (var inactive : inactiveAccounts) {
+                var account = inactive.account();
 
                 System.out.println("  - Numero : " + account.getNumber());
                 System.out.println("    Type : " + account.getType());
                 System.out.println("    Solde : " + String.format("%.2f", account.getBalance()) + " MAD");
+                System.out.println("    Proprietaire : " + inactive.ownerName());
 
-                clientOpt.ifPresent(client ->
-                        System.out.println("    Proprietaire : " + client.name())
-                );
-
-                if (transactions.isEmpty()) {
+                if (inactive.lastActivity() == null) {
                     System.out.println("    Statut : Aucune transaction enregistree");
                 } else {
-                    var lastTransaction = transactions.stream()
-                            .max(Comparator.comparing(Transaction::date))
-                            .get();
-                    long daysSince = ChronoUnit.DAYS.between(lastTransaction.date(), LocalDateTime.now());
-                    System.out.println("    Derniere transaction : Il y a " + daysSince + " jours");
+                    System.out.println("    Derniere transaction : Il y a " + inactive.daysSinceLastActivity() + " jours");
                 }
                 System.out.println();
             }
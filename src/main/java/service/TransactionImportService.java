@@ -0,0 +1,257 @@
+package service;
+
+import dao.AccountDAO;
+import dao.TransactionCopyWriter;
+import entity.transactions.ImportReport;
+import enums.TransactionType;
+import util.Validation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Import d'un fichier CSV/TSV de transactions via COPY.
+// Format attendu (en-tete optionnel) : date, montant, type, lieu, numero de compte.
+// Seuls DEPOSIT et WITHDRAWAL sont acceptes : un virement a besoin de ses deux jambes (TransferService).
+// Le fichier est lu par blocs de CHUNK_SIZE lignes : la memoire reste bornee quelle que soit sa taille.
+// Comme createTransactions, l'import enregistre des transactions deja reglees : les soldes ne sont pas modifies.
+public class TransactionImportService {
+
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int MAX_CACHED_ACCOUNTS = 100_000;
+    private static final int EXPECTED_COLUMNS = 5;
+    // Limites des colonnes (location VARCHAR(100), amount DECIMAL(15, 2)) : une ligne hors limites ferait
+    // echouer le COPY, donc tout l'import ; elle est rejetee ici comme les autres lignes invalides
+    private static final int MAX_LOCATION_LENGTH = 100;
+    private static final BigDecimal MAX_AMOUNT = BigDecimal.TEN.pow(13);
+
+    private final AccountDAO accountDAO;
+
+    public TransactionImportService() {
+        this.accountDAO = new AccountDAO();
+    }
+
+    // ========== IMPORT FILE ==========
+    public Optional<ImportReport> importFile(String feedPath, String rejectPath) {
+        if (!Validation.isValidString(feedPath) || !Files.isRegularFile(Path.of(feedPath))) {
+            System.err.println("Erreur : Fichier introuvable : " + feedPath);
+            return Optional.empty();
+        }
+
+        char delimiter = feedPath.toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        long start = System.nanoTime();
+        long linesRead = 0;
+        long rejected = 0;
+        Map<String, Long> accountIds = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(feedPath), StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(Path.of(rejectPath), StandardCharsets.UTF_8);
+             TransactionCopyWriter writer = new TransactionCopyWriter()) {
+
+            List<FeedLine> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                linesRead++;
+                if (line.isBlank() || (linesRead == 1 && isHeader(line))) {
+                    continue;
+                }
+
+                chunk.add(new FeedLine(linesRead, line));
+                if (chunk.size() == CHUNK_SIZE) {
+                    rejected += processChunk(chunk, delimiter, accountIds, writer, rejects);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                rejected += processChunk(chunk, delimiter, accountIds, writer, rejects);
+            }
+
+            long imported = writer.finish();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return Optional.of(new ImportReport(linesRead, imported, rejected, elapsedMillis));
+
+        } catch (IOException e) {
+            System.err.println("Erreur de lecture/ecriture pendant l'import : " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Echec de l'import, aucune ligne enregistree : " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // ========== CHUNK PROCESSING ==========
+    private long processChunk(List<FeedLine> chunk, char delimiter, Map<String, Long> accountIds,
+                              TransactionCopyWriter writer, BufferedWriter rejects) throws IOException, SQLException {
+        long rejected = 0;
+        List<FeedRow> rows = new ArrayList<>(chunk.size());
+        Set<String> unresolved = new HashSet<>();
+
+        for (FeedLine line : chunk) {
+            List<String> fields = splitLine(line.raw(), delimiter);
+            String error = validateFields(fields);
+            if (error != null) {
+                writeReject(rejects, line, error);
+                rejected++;
+                continue;
+            }
+
+            var row = new FeedRow(
+                    line,
+                    parseDate(fields.get(0)),
+                    Double.parseDouble(fields.get(1).trim()),
+                    TransactionType.valueOf(fields.get(2).trim().toUpperCase()),
+                    fields.get(3).trim(),
+                    fields.get(4).trim().toUpperCase()
+            );
+            rows.add(row);
+            if (!accountIds.containsKey(row.accountNumber())) {
+                unresolved.add(row.accountNumber());
+            }
+        }
+
+        // Resolution groupee des numeros de compte : une requete par bloc au plus
+        if (!unresolved.isEmpty()) {
+            if (accountIds.size() + unresolved.size() > MAX_CACHED_ACCOUNTS) {
+                accountIds.clear();
+                rows.forEach(row -> unresolved.add(row.accountNumber()));
+            }
+            accountIds.putAll(accountDAO.findIdsByNumbers(unresolved));
+        }
+
+        for (FeedRow row : rows) {
+            Long accountId = accountIds.get(row.accountNumber());
+            if (accountId == null) {
+                writeReject(rejects, row.line(), "compte introuvable : " + row.accountNumber());
+                rejected++;
+                continue;
+            }
+            writer.write(row.date(), row.amount(), row.type(), row.location(), accountId);
+        }
+        return rejected;
+    }
+
+    // Retourne la raison du rejet, ou null si la ligne est valide
+    private String validateFields(List<String> fields) {
+        if (fields.size() != EXPECTED_COLUMNS) {
+            return "nombre de colonnes invalide (" + fields.size() + ")";
+        }
+
+        LocalDateTime date = parseDate(fields.get(0));
+        if (date == null || date.isAfter(LocalDateTime.now())) {
+            return "date invalide";
+        }
+
+        double amount;
+        try {
+            amount = Double.parseDouble(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+            return "montant invalide";
+        }
+        if (!Double.isFinite(amount)) {
+            return "montant invalide";
+        }
+        if (!Validation.isValidAmount(amount)) {
+            return "montant non positif";
+        }
+        // Arrondi comme en base (2 decimales) : 0.001 deviendrait 0.00 et violerait amount > 0
+        BigDecimal stored = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+        if (stored.signum() == 0) {
+            return "montant inferieur a 0.01";
+        }
+        if (stored.compareTo(MAX_AMOUNT) >= 0) {
+            return "montant trop grand";
+        }
+
+        try {
+            // Un virement sans compte beneficiaire serait unilateral : voir TransferService
+            if (TransactionType.valueOf(fields.get(2).trim().toUpperCase()) == TransactionType.TRANSFER) {
+                return "virement sans compte beneficiaire";
+            }
+        } catch (IllegalArgumentException e) {
+            return "type invalide";
+        }
+
+        if (!Validation.isValidString(fields.get(3))) {
+            return "lieu vide";
+        }
+        if (fields.get(3).trim().length() > MAX_LOCATION_LENGTH) {
+            return "lieu trop long (plus de " + MAX_LOCATION_LENGTH + " caracteres)";
+        }
+
+        if (!Validation.isValidAccountNumber(fields.get(4).trim().toUpperCase())) {
+            return "numero de compte invalide";
+        }
+        return null;
+    }
+
+    // ========== HELPER METHODS ==========
+    private boolean isHeader(String line) {
+        return line.trim().toLowerCase().startsWith("date");
+    }
+
+    private LocalDateTime parseDate(String value) {
+        try {
+            return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Decoupe une ligne en respectant les guillemets ("Paris, France")
+    private List<String> splitLine(String line, char delimiter) {
+        List<String> fields = new ArrayList<>(EXPECTED_COLUMNS);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == delimiter && !quoted) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private void writeReject(BufferedWriter rejects, FeedLine line, String reason) throws IOException {
+        rejects.write(line.number() + "\t" + reason + "\t" + line.raw());
+        rejects.newLine();
+    }
+
+    private record FeedLine(long number, String raw) {
+    }
+
+    private record FeedRow(
+            FeedLine line,
+            LocalDateTime date,
+            double amount,
+            TransactionType type,
+            String location,
+            String accountNumber
+    ) {
+    }
+}
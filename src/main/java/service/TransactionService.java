@@ -1,32 +1,195 @@
 package service;
 
+import analytics.AmountIndex;
+import analytics.ColumnarQuery;
+import analytics.FraudRule;
+import analytics.LocationDictionary;
+import analytics.LocationIndex;
+import analytics.RuleEngine;
+import analytics.RuleHits;
+import analytics.RuleScan;
+import analytics.TimeIndex;
+import analytics.TransactionColumns;
+import analytics.VelocityDetector;
+import dao.AccountActivityDAO;
 import dao.AccountDAO;
 import dao.TransactionDAO;
 import entity.accounts.Account;
+import entity.accounts.AccountActivity;
+import entity.transactions.SuspiciousTransaction;
 import entity.transactions.Transaction;
+import entity.transactions.TransactionPage;
+import entity.transactions.TransactionQuery;
+import entity.transactions.TransactionRequest;
 import enums.TransactionType;
 import util.Validation;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TransactionService {
 
+    // Noms des regles de detection, affiches avec les transactions suspectes
+    public static final String RULE_HIGH_AMOUNT = "MONTANT_ELEVE";
+    public static final String RULE_UNUSUAL_LOCATION = "LIEU_INHABITUEL";
+    public static final String RULE_HIGH_FREQUENCY = "FREQUENCE_ELEVEE";
+
     private final TransactionDAO transactionDAO;
     private final AccountDAO accountDAO;
+    private final AccountActivityDAO activityDAO;
+    private final PostingEngine postingEngine;
+    // Mode commit groupe, desactive par defaut : chaque transaction a alors son propre commit
+    private volatile GroupCommitWriter groupCommit;
 
     public TransactionService() {
         this.transactionDAO = new TransactionDAO();
         this.accountDAO = new AccountDAO();
+        this.activityDAO = new AccountActivityDAO();
+        this.postingEngine = PostingEngine.getInstance();
     }
 
     // ========== CREATE TRANSACTION ==========
     public boolean createTransaction(LocalDateTime date, double amount, TransactionType type, String location, String number) {
+        if (groupCommit != null) {
+            return createTransactionAsync(date, amount, type, location, number).join();
+        }
+
+        Optional<Transaction> transaction = prepareTransaction(date, amount, type, location, number);
+        if (transaction.isEmpty()) {
+            return false;
+        }
+
+        try {
+            return postingEngine.post(transaction.get()).isPresent();
+        } catch (SQLException e) {
+            System.err.println("Echec de la creation de la transaction : " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Complete apres le commit du lot qui contient la transaction (ou apres son propre commit hors commit groupe)
+    public CompletableFuture<Boolean> createTransactionAsync(LocalDateTime date, double amount, TransactionType type,
+                                                             String location, String number) {
+        GroupCommitWriter writer = groupCommit;
+        if (writer == null) {
+            return CompletableFuture.completedFuture(createTransaction(date, amount, type, location, number));
+        }
+
+        Optional<Transaction> transaction = prepareTransaction(date, amount, type, location, number);
+        if (transaction.isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return writer.submit(transaction.get())
+                .thenApply(posted -> {
+                    if (posted.isEmpty()) {
+                        System.err.println("Erreur : Solde insuffisant ou compte introuvable (ID : " + transaction.get().accountId() + ")");
+                    }
+                    return posted.isPresent();
+                })
+                .exceptionally(e -> {
+                    System.err.println("Echec de la creation de la transaction : " + e.getMessage());
+                    return false;
+                });
+    }
+
+    private Optional<Transaction> prepareTransaction(LocalDateTime date, double amount, TransactionType type,
+                                                     String location, String number) {
+        if (!isValidTransaction(date, amount, type, location, number)) {
+            return Optional.empty();
+        }
+
+        // Un virement a besoin d'un compte beneficiaire : voir TransferService
+        if (type == TransactionType.TRANSFER) {
+            System.err.println("Erreur : Un virement doit preciser le compte beneficiaire");
+            return Optional.empty();
+        }
+
+        Optional<Account> account = accountDAO.findByNumber(number);
+        if (account.isEmpty()) {
+            System.err.println("Erreur : Compte introuvable avec le numero : " + number);
+            return Optional.empty();
+        }
+        return Optional.of(new Transaction(date, amount, type, location, account.get().getId()));
+    }
+
+    // ========== GROUP COMMIT ==========
+    // Regroupe les transactions de tous les threads appelants : un commit pour au plus maxBatch lignes
+    // ou maxWaitMillis d'attente. Un nouvel appel remplace la configuration precedente.
+    public synchronized void enableGroupCommit(int maxBatch, long maxWaitMillis) {
+        GroupCommitWriter previous = groupCommit;
+        groupCommit = new GroupCommitWriter(maxBatch, maxWaitMillis);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    // Ecrit les transactions en attente puis revient a un commit par transaction
+    public synchronized void disableGroupCommit() {
+        GroupCommitWriter previous = groupCommit;
+        groupCommit = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public Optional<GroupCommitWriter.Stats> getGroupCommitStats() {
+        GroupCommitWriter writer = groupCommit;
+        return writer != null ? Optional.of(writer.getStats()) : Optional.empty();
+    }
+
+    // ========== CREATE TRANSACTIONS (BATCH) ==========
+    // Enregistrement en masse de transactions deja reglees (flux externes) : les soldes ne sont pas modifies.
+    // Les demandes invalides ou sur un compte inconnu sont ignorees ; retourne les transactions creees.
+    // Le lot est enregistre en entier ou pas du tout : une liste vide apres une erreur signifie rien d'ecrit
+    public List<Transaction> createTransactions(List<TransactionRequest> requests) {
+        // Pas de virement unilateral : un virement passe par TransferService (debit et credit lies)
+        var valid = requests.stream()
+                .filter(r -> isValidTransaction(r.date(), r.amount(), r.type(), r.location(), r.accountNumber()))
+                .filter(r -> {
+                    if (r.type() == TransactionType.TRANSFER) {
+                        System.err.println("Erreur : Un virement doit preciser le compte beneficiaire (compte " + r.accountNumber() + ")");
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+
+        var numbers = valid.stream()
+                .map(TransactionRequest::accountNumber)
+                .collect(Collectors.toSet());
+        Map<String, Long> accountIds = accountDAO.findIdsByNumbers(numbers);
+
+        List<Transaction> transactions = new ArrayList<>(valid.size());
+        for (TransactionRequest request : valid) {
+            Long accountId = accountIds.get(request.accountNumber());
+            if (accountId == null) {
+                System.err.println("Erreur : Compte introuvable avec le numero : " + request.accountNumber());
+                continue;
+            }
+            transactions.add(new Transaction(request.date(), request.amount(), request.type(), request.location(), accountId));
+        }
+
+        try {
+            return transactionDAO.createAll(transactions);
+        } catch (SQLException e) {
+            System.err.println("Echec de la creation du lot de transactions, aucune transaction enregistree : " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private boolean isValidTransaction(LocalDateTime date, double amount, TransactionType type, String location, String number) {
         if (date == null || date.isAfter(LocalDateTime.now())) {
             System.err.println("Erreur : Date invalide");
             return false;
@@ -51,22 +214,7 @@ public class TransactionService {
             System.err.println("Erreur : Numero du compte invalide");
             return false;
         }
-
-        Optional<Account> account = accountDAO.findByNumber(number);
-        if (account.isEmpty()) {
-            System.err.println("Erreur : Compte introuvable avec le numero : " + number);
-            return false;
-        }
-
-        try {
-            long accountId = account.get().getId();
-            var transaction = new Transaction(date, amount, type, location, accountId);
-            transactionDAO.create(transaction);
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Echec de la creation de la transaction : " + e.getMessage());
-            return false;
-        }
+        return true;
     }
 
     // ========== LIST TRANSACTIONS ==========
@@ -77,9 +225,7 @@ public class TransactionService {
             return List.of();
         }
 
-        return transactionDAO.findByAccountId(accountId).stream()
-                .sorted(Comparator.comparing(Transaction::date).reversed())
-                .toList();
+        return transactionDAO.findByAccountId(accountId);
     }
 
     public List<Transaction> getTransactionsByClient(Long clientId) {
@@ -88,9 +234,49 @@ public class TransactionService {
             return List.of();
         }
 
-        return transactionDAO.findByClientId(clientId).stream()
-                .sorted(Comparator.comparing(Transaction::date).reversed())
-                .toList();
+        return transactionDAO.findByClientId(clientId);
+    }
+
+    // ========== PAGINATED HISTORY ==========
+
+    public TransactionPage getTransactionPageByAccount(Long accountId, TransactionPage.Cursor after, int pageSize) {
+        if (!Validation.isValidId(accountId)) {
+            System.err.println("Erreur : ID compte invalide");
+            return new TransactionPage(List.of(), null);
+        }
+
+        if (pageSize <= 0) {
+            System.err.println("Erreur : Taille de page invalide");
+            return new TransactionPage(List.of(), null);
+        }
+
+        return transactionDAO.findPageByAccountId(accountId, after, pageSize);
+    }
+
+    public TransactionPage getTransactionPageByClient(Long clientId, TransactionPage.Cursor after, int pageSize) {
+        if (!Validation.isValidId(clientId)) {
+            System.err.println("Erreur : ID client invalide");
+            return new TransactionPage(List.of(), null);
+        }
+
+        if (pageSize <= 0) {
+            System.err.println("Erreur : Taille de page invalide");
+            return new TransactionPage(List.of(), null);
+        }
+
+        return transactionDAO.findPageByClientId(clientId, after, pageSize);
+    }
+
+    public List<Transaction> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            System.err.println("Erreur : Periode invalide");
+            return List.of();
+        }
+
+        // Bornes incluses comme filterByDateRange, le DAO attend une fin exclue
+        try (var transactions = transactionDAO.streamByDateRange(startDate, endDate.plusNanos(1000))) {
+            return transactions.toList();
+        }
     }
 
     public List<Transaction> getAllTransactions() {
@@ -99,12 +285,54 @@ public class TransactionService {
                 .toList();
     }
 
+    // ========== QUERY TRANSACTIONS ==========
+    // Donnees en base : une seule requete SQL parametree pour tous les criteres
+    public List<Transaction> query(TransactionQuery query) {
+        return transactionDAO.find(query);
+    }
+
+    public long count(TransactionQuery query) {
+        return transactionDAO.count(query);
+    }
+
+    // Donnees deja chargees : une seule passe, tous les criteres evalues ensemble
+    public List<Transaction> query(List<Transaction> transactions, TransactionQuery query) {
+        Predicate<Transaction> matches = toPredicate(query);
+        Comparator<Transaction> order = comparatorOf(query.order());
+
+        if (order == null) {
+            var selected = transactions.stream().filter(matches);
+            return (query.hasLimit() ? selected.limit(query.limit()) : selected).toList();
+        }
+
+        if (!query.hasLimit()) {
+            return transactions.stream().filter(matches).sorted(order).toList();
+        }
+
+        // Tri et limite : tas borne a limit elements au lieu d'un tri complet
+        PriorityQueue<Transaction> heap = new PriorityQueue<>(query.limit() + 1, order.reversed());
+        for (Transaction transaction : transactions) {
+            if (matches.test(transaction)) {
+                heap.offer(transaction);
+                if (heap.size() > query.limit()) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Transaction> top = new ArrayList<>(heap);
+        top.sort(order);
+        return top;
+    }
+
+    // Jeu en colonnes : indices des lignes retenues
+    public int[] query(TransactionColumns columns, TransactionQuery query) {
+        return ColumnarQuery.execute(columns, query);
+    }
+
     // ========== FILTER TRANSACTIONS ==========
 
     public List<Transaction> filterByAmount(List<Transaction> transactions, double minAmount, double maxAmount) {
-        return transactions.stream()
-                .filter(t -> t.amount() >= minAmount && t.amount() <= maxAmount)
-                .toList();
+        return query(transactions, TransactionQuery.all().amountBetween(minAmount, maxAmount));
     }
 
     public List<Transaction> filterByType(List<Transaction> transactions, TransactionType type) {
@@ -112,15 +340,11 @@ public class TransactionService {
             return transactions;
         }
 
-        return transactions.stream()
-                .filter(t -> t.type() == type)
-                .toList();
+        return query(transactions, TransactionQuery.all().ofType(type));
     }
 
     public List<Transaction> filterByDateRange(List<Transaction> transactions, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactions.stream()
-                .filter(t -> !t.date().isBefore(startDate) && !t.date().isAfter(endDate))
-                .toList();
+        return query(transactions, TransactionQuery.all().between(startDate, endDate));
     }
 
     public List<Transaction> filterByLocation(List<Transaction> transactions, String location) {
@@ -128,9 +352,7 @@ public class TransactionService {
             return transactions;
         }
 
-        return transactions.stream()
-                .filter(t -> t.location().toLowerCase().contains(location.toLowerCase()))
-                .toList();
+        return query(transactions, TransactionQuery.all().locationContaining(location));
     }
 
     // ========== GROUP TRANSACTIONS ==========
@@ -174,9 +396,9 @@ public class TransactionService {
             return 0.0;
         }
 
-        return transactionDAO.findByAccountId(accountId).stream()
-                .mapToDouble(Transaction::amount)
-                .sum();
+        return activityDAO.findByAccountId(accountId)
+                .map(AccountActivity::totalAmount)
+                .orElse(0.0);
     }
 
     public double getTotalByClient(Long clientId) {
@@ -184,9 +406,11 @@ public class TransactionService {
             return 0.0;
         }
 
-        return transactionDAO.findByClientId(clientId).stream()
-                .mapToDouble(Transaction::amount)
-                .sum();
+        try (var transactions = transactionDAO.streamByClientId(clientId)) {
+            return transactions
+                    .mapToDouble(Transaction::amount)
+                    .sum();
+        }
     }
 
     public OptionalDouble getAverageByAccount(Long accountId) {
@@ -194,9 +418,9 @@ public class TransactionService {
             return OptionalDouble.empty();
         }
 
-        return transactionDAO.findByAccountId(accountId).stream()
-                .mapToDouble(Transaction::amount)
-                .average();
+        return activityDAO.findByAccountId(accountId)
+                .map(AccountActivity::averageAmount)
+                .orElse(OptionalDouble.empty());
     }
 
     public OptionalDouble getAverageByClient(Long clientId) {
@@ -204,9 +428,166 @@ public class TransactionService {
             return OptionalDouble.empty();
         }
 
-        return transactionDAO.findByClientId(clientId).stream()
-                .mapToDouble(Transaction::amount)
-                .average();
+        try (var transactions = transactionDAO.streamByClientId(clientId)) {
+            return transactions
+                    .mapToDouble(Transaction::amount)
+                    .average();
+        }
+    }
+
+    // ========== COLUMNAR ANALYTICS ==========
+    // Memes filtres, regroupements et statistiques sur un jeu en colonnes : les lignes sont designees par
+    // leur indice (tableaux int[]) et aucune allocation n'est faite par ligne.
+
+    public TransactionColumns loadTransactionColumns() {
+        return transactionDAO.loadColumns();
+    }
+
+    public int[] filterByAmount(TransactionColumns columns, double minAmount, double maxAmount) {
+        return query(columns, TransactionQuery.all().amountBetween(minAmount, maxAmount));
+    }
+
+    public int[] filterByType(TransactionColumns columns, TransactionType type) {
+        return query(columns, TransactionQuery.all().ofType(type));
+    }
+
+    public int[] filterByDateRange(TransactionColumns columns, LocalDateTime startDate, LocalDateTime endDate) {
+        return query(columns, TransactionQuery.all().between(startDate, endDate));
+    }
+
+    // Le test de sous-chaine est fait une fois par lieu distinct, puis chaque ligne compare un identifiant
+    public int[] filterByLocation(TransactionColumns columns, String location) {
+        return query(columns, TransactionQuery.all().locationContaining(location));
+    }
+
+    public Map<TransactionType, int[]> groupByType(TransactionColumns columns) {
+        TransactionType[] types = TransactionType.values();
+        int[][] buckets = bucketRows(columns.size(), types.length, columns::typeOrdinal);
+
+        Map<TransactionType, int[]> groups = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : types) {
+            if (buckets[type.ordinal()].length > 0) {
+                groups.put(type, buckets[type.ordinal()]);
+            }
+        }
+        return groups;
+    }
+
+    public Map<LocalDate, int[]> groupByDay(TransactionColumns columns) {
+        if (columns.size() == 0) {
+            return Map.of();
+        }
+
+        long[] range = epochDayRange(columns);
+        long firstDay = range[0];
+        int[][] buckets = bucketRows(columns.size(), (int) (range[1] - firstDay + 1),
+                row -> (int) (epochDay(columns, row) - firstDay));
+
+        Map<LocalDate, int[]> groups = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i].length > 0) {
+                groups.put(LocalDate.ofEpochDay(firstDay + i), buckets[i]);
+            }
+        }
+        return groups;
+    }
+
+    public Map<YearMonth, int[]> groupByMonth(TransactionColumns columns) {
+        if (columns.size() == 0) {
+            return Map.of();
+        }
+
+        // Mois de chaque jour de l'intervalle calcule une fois, pas pour chaque ligne
+        long[] range = epochDayRange(columns);
+        long firstDay = range[0];
+        YearMonth firstMonth = YearMonth.from(LocalDate.ofEpochDay(firstDay));
+        int[] monthOfDay = new int[(int) (range[1] - firstDay + 1)];
+        for (int i = 0; i < monthOfDay.length; i++) {
+            monthOfDay[i] = (int) firstMonth.until(YearMonth.from(LocalDate.ofEpochDay(firstDay + i)), ChronoUnit.MONTHS);
+        }
+
+        int[][] buckets = bucketRows(columns.size(), monthOfDay[monthOfDay.length - 1] + 1,
+                row -> monthOfDay[(int) (epochDay(columns, row) - firstDay)]);
+
+        Map<YearMonth, int[]> groups = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i].length > 0) {
+                groups.put(firstMonth.plusMonths(i), buckets[i]);
+            }
+        }
+        return groups;
+    }
+
+    public Map<String, int[]> groupByLocation(TransactionColumns columns) {
+        int[][] buckets = bucketRows(columns.size(), columns.locationCount(), columns::locationId);
+
+        Map<String, int[]> groups = new HashMap<>();
+        for (int id = 0; id < buckets.length; id++) {
+            if (buckets[id].length > 0) {
+                groups.put(columns.locationName(id), buckets[id]);
+            }
+        }
+        return groups;
+    }
+
+    // Avec un index temporel : recherche dichotomique au lieu d'un parcours, buckets deja calcules.
+    // L'index se construit une fois (TimeIndex.of) et sert a toutes les requetes suivantes.
+    public int[] filterByDateRange(TimeIndex index, LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return new int[0];
+        }
+        return index.rowsBetween(startDate, endDate);
+    }
+
+    public Map<LocalDate, int[]> groupByDay(TimeIndex index) {
+        return index.groupByDay();
+    }
+
+    public Map<YearMonth, int[]> groupByMonth(TimeIndex index) {
+        return index.groupByMonth();
+    }
+
+    // Avec un index des montants : plages et seuils par recherche dichotomique, sans tri a chaque seuil
+    public int[] filterByAmount(AmountIndex index, double minAmount, double maxAmount) {
+        return index.rowsBetween(minAmount, maxAmount);
+    }
+
+    public int[] detectHighAmountTransactions(AmountIndex index, double threshold) {
+        return index.rowsAbove(threshold);
+    }
+
+    public int[] getTopByAmount(AmountIndex index, int k) {
+        return index.top(k);
+    }
+
+    // Avec un index de lieux : seules les lignes des lieux candidats (trigrammes) sont touchees
+    public int[] filterByLocation(LocationIndex index, String location) {
+        if (!Validation.isValidString(location)) {
+            return new int[0];
+        }
+        return index.rowsContaining(location);
+    }
+
+    public int[] detectUnusualLocation(LocationIndex index, String usualCountry) {
+        if (!Validation.isValidString(usualCountry)) {
+            return new int[0];
+        }
+        return index.rowsNotContaining(usualCountry);
+    }
+
+    public double getTotalAmount(TransactionColumns columns, int[] rows) {
+        long cents = 0;
+        for (int row : rows) {
+            cents += columns.amountCents(row);
+        }
+        return cents / 100.0;
+    }
+
+    public OptionalDouble getAverageAmount(TransactionColumns columns, int[] rows) {
+        if (rows.length == 0) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(getTotalAmount(columns, rows) / rows.length);
     }
 
     // ========== DETECT SUSPICIOUS TRANSACTIONS ==========
@@ -223,53 +604,182 @@ public class TransactionService {
             return List.of();
         }
 
+        var dictionary = LocationDictionary.getInstance();
+        IntPredicate usual = dictionary.containing(usualCountry);
         return transactions.stream()
-                .filter(t -> !t.location().toLowerCase().contains(usualCountry.toLowerCase()))
+                .filter(t -> !usual.test(dictionary.idOf(t.location())))
                 .toList();
     }
 
+    // Deux transactions d'un meme compte a moins de maxMinutesBetween minutes d'intervalle
     public List<Transaction> detectHighFrequency(List<Transaction> transactions, long maxMinutesBetween) {
-        List<Transaction> suspicious = new ArrayList<>();
+        return detectHighFrequency(transactions, 1, Duration.ofMinutes(maxMinutesBetween));
+    }
 
+    // Plus de maxCount transactions d'un meme compte dans une fenetre glissante ; une passe apres le tri par date
+    public List<Transaction> detectHighFrequency(List<Transaction> transactions, int maxCount, Duration window) {
         var sortedTransactions = transactions.stream()
                 .sorted(Comparator.comparing(Transaction::date))
                 .toList();
 
-        for (int i = 0; i < sortedTransactions.size() - 1; i++) {
-            var current = sortedTransactions.get(i);
-            var next = sortedTransactions.get(i + 1);
-
-            long minutesBetween = ChronoUnit.MINUTES.between(current.date(), next.date());
-
-            if (minutesBetween <= maxMinutesBetween) {
-                if (!suspicious.contains(current)) {
-                    suspicious.add(current);
-                }
-                if (!suspicious.contains(next)) {
-                    suspicious.add(next);
-                }
-            }
+        BitSet flagged = new BitSet(sortedTransactions.size());
+        var detector = new VelocityDetector(maxCount, window, position -> flagged.set((int) position));
+        for (int i = 0; i < sortedTransactions.size(); i++) {
+            Transaction transaction = sortedTransactions.get(i);
+            detector.accept(transaction.accountId(), TransactionColumns.toEpochMillis(transaction.date()), i);
         }
 
-        return suspicious;
+        return flagged.stream()
+                .mapToObj(sortedTransactions::get)
+                .toList();
+    }
+
+    public int[] detectHighFrequency(TransactionColumns columns, int maxCount, Duration window) {
+        return VelocityDetector.detect(columns, maxCount, window).stream().toArray();
     }
 
     public List<Transaction> detectAllSuspicious(Long accountId, double amountThreshold, String usualCountry, long maxMinutesBetween) {
+        return findSuspicious(accountId, amountThreshold, usualCountry, maxMinutesBetween).stream()
+                .map(SuspiciousTransaction::transaction)
+                .toList();
+    }
+
+    // Comme detectAllSuspicious, avec les regles declenchees par chaque transaction
+    public List<SuspiciousTransaction> findSuspicious(Long accountId, double amountThreshold, String usualCountry, long maxMinutesBetween) {
         if (!Validation.isValidId(accountId)) {
             return List.of();
         }
 
         var transactions = transactionDAO.findByAccountId(accountId);
+        return evaluateRules(transactions, suspicionRules(amountThreshold, usualCountry, maxMinutesBetween));
+    }
 
-        var highAmount = detectHighAmountTransactions(transactions, amountThreshold);
-        var unusualLocation = detectUnusualLocation(transactions, usualCountry);
-        var highFrequency = detectHighFrequency(transactions, maxMinutesBetween);
+    // Regles de detectAllSuspicious : montant, lieu (si un pays est donne) et frequence
+    public List<FraudRule> suspicionRules(double amountThreshold, String usualCountry, long maxMinutesBetween) {
+        List<FraudRule> rules = new ArrayList<>();
+        rules.add(FraudRule.highAmount(RULE_HIGH_AMOUNT, amountThreshold));
+        if (Validation.isValidString(usualCountry)) {
+            rules.add(FraudRule.unusualLocation(RULE_UNUSUAL_LOCATION, usualCountry));
+        }
+        rules.add(FraudRule.velocity(RULE_HIGH_FREQUENCY, 1, Duration.ofMinutes(maxMinutesBetween)));
+        return rules;
+    }
 
-        return transactions.stream()
-                .filter(t -> highAmount.contains(t) || unusualLocation.contains(t) || highFrequency.contains(t))
-                .distinct()
-                .sorted(Comparator.comparing(Transaction::date).reversed())
-                .toList();
+    // Toutes les regles en une passe ; transactions signalees de la plus recente a la plus ancienne
+    public List<SuspiciousTransaction> evaluateRules(List<Transaction> transactions, List<FraudRule> rules) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+
+        // Ligne i du jeu en colonnes = transactions.get(i) : les objets d'origine sont conserves
+        RuleHits hits = evaluateRules(TransactionColumns.from(transactions), rules);
+        List<SuspiciousTransaction> suspicious = new ArrayList<>();
+        for (int row : hits.flaggedRows()) {
+            suspicious.add(new SuspiciousTransaction(transactions.get(row), hits.rulesOf(row)));
+        }
+        suspicious.sort(Comparator.comparing((SuspiciousTransaction s) -> s.transaction().date()).reversed());
+        return suspicious;
+    }
+
+    public RuleHits evaluateRules(TransactionColumns columns, List<FraudRule> rules) {
+        return new RuleEngine(rules).evaluate(columns);
+    }
+
+    // Variante en colonnes : seules les lignes signalees sont materialisees en Transaction
+    public List<SuspiciousTransaction> findSuspicious(TransactionColumns columns, List<FraudRule> rules) {
+        if (columns.size() == 0) {
+            return List.of();
+        }
+
+        RuleHits hits = evaluateRules(columns, rules);
+        int[] flagged = hits.flaggedRows();
+        int[] newestFirst = Arrays.stream(flagged).boxed()
+                .sorted(Comparator.comparingLong((Integer row) -> columns.epochMillis(row)).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        List<SuspiciousTransaction> suspicious = new ArrayList<>(newestFirst.length);
+        for (int row : newestFirst) {
+            suspicious.add(new SuspiciousTransaction(columns.toTransaction(row), hits.rulesOf(row)));
+        }
+        return suspicious;
+    }
+
+    // Variante sur curseur : une passe, seuls les identifiants signales sont gardes puis relus en une requete
+    public List<SuspiciousTransaction> findSuspicious(Stream<Transaction> transactions, List<FraudRule> rules) {
+        RuleScan scan = new RuleEngine(rules).scan();
+        transactions.forEach(scan);
+
+        Map<Long, Long> flagged = scan.flagged();
+        if (flagged.isEmpty()) {
+            return List.of();
+        }
+
+        List<SuspiciousTransaction> suspicious = new ArrayList<>(flagged.size());
+        for (Transaction transaction : transactionDAO.findByIds(flagged.keySet())) {
+            suspicious.add(new SuspiciousTransaction(transaction, scan.rulesOf(flagged.get(transaction.id()))));
+        }
+        suspicious.sort(Comparator.comparing((SuspiciousTransaction s) -> s.transaction().date()).reversed());
+        return suspicious;
+    }
+
+    // ========== QUERY / COLUMNAR HELPERS ==========
+    // Tous les criteres dans un seul predicat : une passe sur les donnees
+    private Predicate<Transaction> toPredicate(TransactionQuery query) {
+        var dictionary = LocationDictionary.getInstance();
+        IntPredicate location = Validation.isValidString(query.location()) ? dictionary.containing(query.location()) : null;
+        return t -> (query.minAmount() == null || t.amount() >= query.minAmount())
+                && (query.maxAmount() == null || t.amount() <= query.maxAmount())
+                && (query.type() == null || t.type() == query.type())
+                && (query.start() == null || !t.date().isBefore(query.start()))
+                && (query.end() == null || !t.date().isAfter(query.end()))
+                && (query.accountId() == null || query.accountId().equals(t.accountId()))
+                && (location == null || location.test(dictionary.idOf(t.location())));
+    }
+
+    private Comparator<Transaction> comparatorOf(TransactionQuery.Order order) {
+        return switch (order) {
+            case NONE -> null;
+            case DATE_ASC -> Comparator.comparing(Transaction::date);
+            case DATE_DESC -> Comparator.comparing(Transaction::date).reversed();
+            case AMOUNT_ASC -> Comparator.comparingDouble(Transaction::amount);
+            case AMOUNT_DESC -> Comparator.comparingDouble(Transaction::amount).reversed();
+        };
+    }
+
+    // Tri par comptage : une passe pour la taille des groupes, une passe pour les remplir
+    private int[][] bucketRows(int size, int bucketCount, IntUnaryOperator bucketOf) {
+        int[] counts = new int[bucketCount];
+        for (int row = 0; row < size; row++) {
+            counts[bucketOf.applyAsInt(row)]++;
+        }
+
+        int[][] buckets = new int[bucketCount][];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            buckets[bucket] = new int[counts[bucket]];
+        }
+
+        int[] filled = new int[bucketCount];
+        for (int row = 0; row < size; row++) {
+            int bucket = bucketOf.applyAsInt(row);
+            buckets[bucket][filled[bucket]++] = row;
+        }
+        return buckets;
+    }
+
+    private long[] epochDayRange(TransactionColumns columns) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int row = 0; row < columns.size(); row++) {
+            long day = epochDay(columns, row);
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        return new long[]{first, last};
+    }
+
+    private static long epochDay(TransactionColumns columns, int row) {
+        return Math.floorDiv(columns.epochMillis(row), 86_400_000L);
     }
 
     // ========== DISPLAY TRANSACTION REPORT ==========
@@ -297,11 +807,17 @@ public class TransactionService {
         );
 
         System.out.println("\n--- Repartition par type ---");
-        var byType = groupByType(transactions);
+        // Virements recus a part : sinon ils gonfleraient les versements (DEPOSIT)
+        var received = transactions.stream().filter(Transaction::isTransferCredit).toList();
+        var byType = groupByType(transactions.stream().filter(t -> !t.isTransferCredit()).toList());
         byType.forEach((type, list) ->
                 System.out.println(type + " : " + list.size() + " transaction(s) - Total : " +
                         String.format("%.2f", getTotalAmount(list)) + " MAD")
         );
+        if (!received.isEmpty()) {
+            System.out.println("VIREMENTS RECUS : " + received.size() + " transaction(s) - Total : " +
+                    String.format("%.2f", getTotalAmount(received)) + " MAD");
+        }
 
         System.out.println("\n--- Transactions suspectes (>10000 MAD) ---");
         var suspicious = detectHighAmountTransactions(transactions, 10000.0);
@@ -0,0 +1,163 @@
+package service;
+
+import dao.AccountDAO;
+import entity.transactions.Transfer;
+import entity.transactions.TransferRequest;
+import util.Validation;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Virements entre deux comptes. Chaque virement est poste par le PostingEngine (debit et credit atomiques).
+// En lot, les virements sont repartis en vagues de comptes disjoints : une vague s'execute en parallele,
+// les vagues se suivent, et deux virements sur un meme compte gardent l'ordre de la liste.
+public class TransferService {
+
+    // Reste sous la taille du pool de connexions : chaque virement en cours tient une connexion
+    private static final int PARALLELISM = Math.min(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final AccountDAO accountDAO;
+    private final PostingEngine postingEngine;
+
+    public TransferService() {
+        this.accountDAO = new AccountDAO();
+        this.postingEngine = PostingEngine.getInstance();
+    }
+
+    // ========== TRANSFER ==========
+    public Optional<Transfer> transfer(String fromNumber, String toNumber, double amount, String location) {
+        TransferRequest request = new TransferRequest(fromNumber, toNumber, amount, location);
+        if (!isValidTransfer(request)) {
+            return Optional.empty();
+        }
+
+        Map<String, Long> accountIds = accountDAO.findIdsByNumbers(List.of(fromNumber, toNumber));
+        Long fromId = accountIds.get(fromNumber);
+        Long toId = accountIds.get(toNumber);
+        if (fromId == null || toId == null) {
+            System.err.println("Erreur : Compte introuvable avec le numero : " + (fromId == null ? fromNumber : toNumber));
+            return Optional.empty();
+        }
+        return execute(fromId, toId, request);
+    }
+
+    // ========== TRANSFER ALL (BATCH) ==========
+    // Retourne les virements effectues, dans l'ordre de la liste ; les virements refuses sont ignores
+    public List<Transfer> transferAll(List<TransferRequest> requests) {
+        var valid = requests.stream().filter(this::isValidTransfer).toList();
+
+        Set<String> numbers = new HashSet<>();
+        valid.forEach(r -> {
+            numbers.add(r.fromAccountNumber());
+            numbers.add(r.toAccountNumber());
+        });
+        Map<String, Long> accountIds = accountDAO.findIdsByNumbers(numbers);
+
+        // Vague d'un virement = une de plus que la derniere vague ayant touche l'un de ses comptes
+        List<List<ResolvedTransfer>> waves = new ArrayList<>();
+        Map<Long, Integer> lastWave = new HashMap<>();
+        int position = 0;
+        for (TransferRequest request : valid) {
+            Long fromId = accountIds.get(request.fromAccountNumber());
+            Long toId = accountIds.get(request.toAccountNumber());
+            if (fromId == null || toId == null) {
+                System.err.println("Erreur : Compte introuvable avec le numero : " +
+                        (fromId == null ? request.fromAccountNumber() : request.toAccountNumber()));
+                continue;
+            }
+
+            int wave = Math.max(lastWave.getOrDefault(fromId, -1), lastWave.getOrDefault(toId, -1)) + 1;
+            lastWave.put(fromId, wave);
+            lastWave.put(toId, wave);
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(new ResolvedTransfer(position++, fromId, toId, request));
+        }
+
+        Transfer[] results = new Transfer[position];
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM, r -> {
+            Thread thread = new Thread(r, "transfer-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (List<ResolvedTransfer> wave : waves) {
+                List<Future<?>> pending = new ArrayList<>(wave.size());
+                for (ResolvedTransfer transfer : wave) {
+                    pending.add(executor.submit(() ->
+                            execute(transfer.fromId(), transfer.toId(), transfer.request())
+                                    .ifPresent(t -> results[transfer.position()] = t)));
+                }
+                // La vague suivante attend la fin de celle-ci
+                for (Future<?> future : pending) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Lot de virements interrompu");
+        } catch (ExecutionException e) {
+            System.err.println("Echec du lot de virements : " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Transfer> transfers = new ArrayList<>(position);
+        for (Transfer transfer : results) {
+            if (transfer != null) {
+                transfers.add(transfer);
+            }
+        }
+        return transfers;
+    }
+
+    // ========== HELPER METHODS ==========
+    private Optional<Transfer> execute(Long fromId, Long toId, TransferRequest request) {
+        try {
+            return postingEngine.transfer(fromId, toId, request.amount(), request.location(), LocalDateTime.now());
+        } catch (SQLException e) {
+            System.err.println("Echec du virement " + request.fromAccountNumber() + " -> " +
+                    request.toAccountNumber() + " : " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private boolean isValidTransfer(TransferRequest request) {
+        if (!Validation.isValidAmount(request.amount())) {
+            System.err.println("Erreur : Le montant doit etre positif");
+            return false;
+        }
+
+        if (!Validation.isValidString(request.location())) {
+            System.err.println("Erreur : Lieu invalide");
+            return false;
+        }
+
+        if (!Validation.isValidAccountNumber(request.fromAccountNumber())
+                || !Validation.isValidAccountNumber(request.toAccountNumber())) {
+            System.err.println("Erreur : Numero du compte invalide");
+            return false;
+        }
+
+        if (request.fromAccountNumber().equals(request.toAccountNumber())) {
+            System.err.println("Erreur : Le compte emetteur et le compte beneficiaire sont identiques");
+            return false;
+        }
+        return true;
+    }
+
+    private record ResolvedTransfer(int position, Long fromId, Long toId, TransferRequest request) {
+    }
+}
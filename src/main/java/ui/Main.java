@@ -1,6 +1,10 @@
 package ui;
 
+import analytics.LocationDictionary;
+import dao.LocationDictionaryDAO;
+import service.PartitionMaintenanceService;
 import util.DatabaseConnection;
+import util.MigrationRunner;
 
 public class Main {
     public static void main(String[] args) {
@@ -9,8 +13,18 @@ public class Main {
             System.out.println("Vérifiez votre fichier db.properties et PostgreSQL.");
             return;
         }
+        if (!MigrationRunner.migrate()) {
+            System.out.println("La mise a jour du schema de la base de donnees a echoue.");
+            DatabaseConnection.closeConnection();
+            return;
+        }
+        new LocationDictionaryDAO().loadInto(LocationDictionary.getInstance());
+        PartitionMaintenanceService partitionMaintenance = new PartitionMaintenanceService();
+        partitionMaintenance.start();
+
         Menu menu = new Menu();
         menu.start();
+        partitionMaintenance.stop();
         DatabaseConnection.closeConnection();
     }
 }
\ No newline at end of file
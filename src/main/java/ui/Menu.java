@@ -3,10 +3,13 @@ package ui;
 import service.AccountService;
 import service.ClientService;
 import service.ReportService;
+import service.TransactionImportService;
 import service.TransactionService;
+import service.TransferService;
 import entity.client.Client;
 import entity.accounts.Account;
 import entity.transactions.Transaction;
+import entity.transactions.TransactionPage;
 import enums.TransactionType;
 import util.Input;
 import util.Validation;
@@ -16,19 +19,26 @@ import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class Menu {
 
+    private static final int PAGE_SIZE = 20;
+
     private final ClientService clientService;
     private final AccountService accountService;
     private final TransactionService transactionService;
     private final ReportService reportService;
+    private final TransactionImportService importService;
+    private final TransferService transferService;
 
     public Menu() {
         this.clientService = new ClientService();
         this.accountService = new AccountService();
         this.transactionService = new TransactionService();
         this.reportService = new ReportService();
+        this.importService = new TransactionImportService();
+        this.transferService = new TransferService();
     }
 
     public void start() {
@@ -330,6 +340,7 @@ public class Menu {
             System.out.println("2. Consulter l'historique d'un compte");
             System.out.println("3. Consulter les transactions d'un client");
             System.out.println("4. Afficher le rapport d'un compte");
+            System.out.println("5. Importer un fichier de transactions (CSV/TSV)");
             System.out.println("0. Retour");
             System.out.println("==============================================");
 
@@ -340,6 +351,7 @@ public class Menu {
                 case 2 -> viewAccountTransactions();
                 case 3 -> viewClientTransactions();
                 case 4 -> displayTransactionReport();
+                case 5 -> importTransactions();
                 case 0 -> back = true;
                 default -> System.out.println("Choix invalide.");
             }
@@ -371,6 +383,14 @@ public class Menu {
         String location = Input.readString("Lieu : ");
         String number = Input.readString("Numero du compte : ");
 
+        if (type == TransactionType.TRANSFER) {
+            String counterparty = Input.readString("Numero du compte beneficiaire : ");
+            if (transferService.transfer(number, counterparty, amount, location).isPresent()) {
+                System.out.println("Virement effectue avec succes !");
+            }
+            return;
+        }
+
         if (transactionService.createTransaction(LocalDateTime.now(), amount, type, location, number)) {
             System.out.println("Transaction enregistree avec succes !");
         }
@@ -381,26 +401,39 @@ public class Menu {
         String number = Input.readString("Numero du compte : ");
 
         Optional<Account> account = accountService.findAccountByNumber(number);
-        long accountId = account.get().getId();
-        List<Transaction> transactions = transactionService.getTransactionsByAccount(accountId);
-        if (transactions.isEmpty()) {
-            System.out.println("Aucune transaction trouvee.");
-        } else {
-            System.out.println("\nTransactions :");
-            transactions.forEach(this::displayTransaction);
+        if (account.isEmpty()) {
+            System.out.println("Compte introuvable.");
+            return;
         }
+        long accountId = account.get().getId();
+        displayTransactionPages(after -> transactionService.getTransactionPageByAccount(accountId, after, PAGE_SIZE));
     }
 
     private void viewClientTransactions() {
         System.out.println("\n--- Transactions d'un client ---");
         long clientId = Input.readLong("ID du client : ");
 
-        List<Transaction> transactions = transactionService.getTransactionsByClient(clientId);
-        if (transactions.isEmpty()) {
+        displayTransactionPages(after -> transactionService.getTransactionPageByClient(clientId, after, PAGE_SIZE));
+    }
+
+    // Affiche l'historique page par page : la page suivante n'est chargee que sur demande
+    private void displayTransactionPages(Function<TransactionPage.Cursor, TransactionPage> loader) {
+        TransactionPage page = loader.apply(null);
+        if (page.transactions().isEmpty()) {
             System.out.println("Aucune transaction trouvee.");
-        } else {
-            System.out.println("\nTransactions :");
-            transactions.forEach(this::displayTransaction);
+            return;
+        }
+
+        int pageNumber = 1;
+        while (true) {
+            System.out.println("\nTransactions (page " + pageNumber + ") :");
+            page.transactions().forEach(this::displayTransaction);
+
+            if (!page.hasNext() || !Input.readBoolean("Afficher la page suivante ?")) {
+                return;
+            }
+            page = loader.apply(page.next());
+            pageNumber++;
         }
     }
 
@@ -412,13 +445,30 @@ public class Menu {
         transactionService.displayTransactionReport(accountId);
     }
 
+    private void importTransactions() {
+        System.out.println("\n--- Importer un fichier de transactions ---");
+        System.out.println("Colonnes : date, montant, type, lieu, numero de compte");
+        String path = Input.readString("Chemin du fichier : ");
+        String rejectPath = path + ".rejets";
+
+        importService.importFile(path, rejectPath).ifPresent(report -> {
+            System.out.println("Import termine : " + report.imported() + " ligne(s) importee(s), " +
+                    report.rejected() + " rejetee(s) en " + report.elapsedMillis() + " ms (" +
+                    String.format("%.0f", report.rowsPerSecond()) + " lignes/s)");
+            if (report.rejected() > 0) {
+                System.out.println("Lignes rejetees : " + rejectPath);
+            }
+        });
+    }
+
     private void displayTransaction(Transaction transaction) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
         System.out.println("  [" + transaction.id() + "] " +
                 transaction.date().format(formatter) + " - " +
                 transaction.type() + " - " +
                 String.format("%.2f", transaction.amount()) + " MAD - " +
-                transaction.location());
+                transaction.location() +
+                (transaction.counterpartyId() != null ? " (contrepartie : compte " + transaction.counterpartyId() + ")" : ""));
     }
 
     // ========== REPORTS AND ANALYSIS ==========
@@ -426,7 +476,7 @@ public class Menu {
         boolean back = false;
         while (!back) {
             System.out.println("\n========== RAPPORTS ET ANALYSES ==========");
-            System.out.println("1. Top 5 clients par solde");
+            System.out.println("1. Top clients par solde");
             System.out.println("2. Rapport mensuel");
             System.out.println("3. Transactions suspectes");
             System.out.println("4. Comptes inactifs");
@@ -436,7 +486,7 @@ public class Menu {
             int choice = Input.readInt("Votre choix : ");
 
             switch (choice) {
-                case 1 -> reportService.displayTop5ClientsByBalance();
+                case 1 -> displayTopClients();
                 case 2 -> displayMonthlyReport();
                 case 3 -> displaySuspiciousTransactions();
                 case 4 -> displayInactiveAccounts();
@@ -446,6 +496,12 @@ public class Menu {
         }
     }
 
+    private void displayTopClients() {
+        System.out.println("\n--- Top clients par solde ---");
+        int n = Input.readInt("Nombre de clients (ex: 5) : ");
+        reportService.displayTopClientsByBalance(n);
+    }
+
     private void displayMonthlyReport() {
         System.out.println("\n--- Rapport mensuel ---");
         int year = Input.readInt("Annee (ex: 2025) : ");
@@ -0,0 +1,43 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Generations d'invalidation d'un cache : une par tranche de cles, plus un compteur total.
+// Une lecture note la generation avant son SELECT et ne met en cache que si elle n'a pas change :
+// une lecture commencee avant une modification et terminee apres son invalidation ne remet pas
+// l'ancienne valeur en cache. Deux cles d'une meme tranche ne font que rater une mise en cache.
+public class CacheGenerations {
+
+    private final AtomicLongArray generations;
+    private final AtomicLong total = new AtomicLong();
+    private final int mask;
+
+    public CacheGenerations(int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Le nombre de tranches doit etre une puissance de deux");
+        }
+        this.generations = new AtomicLongArray(stripes);
+        this.mask = stripes - 1;
+    }
+
+    // A appeler avant de retirer l'entree du cache
+    public void increment(long key) {
+        generations.incrementAndGet(stripeOf(key));
+        total.incrementAndGet();
+    }
+
+    public long of(long key) {
+        return generations.get(stripeOf(key));
+    }
+
+    // Pour une lecture dont la cle n'est connue qu'apres coup (recherche par numero...)
+    public long total() {
+        return total.get();
+    }
+
+    private int stripeOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+}
@@ -1,14 +1,13 @@
 package util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.io.FileInputStream;
 import java.io.IOException;
 
 public class DatabaseConnection {
-    private static Connection connection;
+    private static ConnectionPool pool;
 
     private DatabaseConnection() {
         throw new UnsupportedOperationException("impossible d'instancier une classe utilitaiere!");
@@ -21,34 +20,50 @@ public class DatabaseConnection {
             String url = props.getProperty("db.url");
             String user = props.getProperty("db.user");
             String password = props.getProperty("db.password");
-            connection = DriverManager.getConnection(url, user, password);
+
+            int maxSize = Integer.parseInt(props.getProperty("db.pool.maxSize", "10"));
+            int minIdle = Integer.parseInt(props.getProperty("db.pool.minIdle", "2"));
+            long maxWaitMillis = Long.parseLong(props.getProperty("db.pool.maxWaitMillis", "5000"));
+            long idleTimeoutMillis = Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "300000"));
+            int validationTimeout = Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2"));
+
+            pool = new ConnectionPool(url, user, password, maxSize, minIdle,
+                    maxWaitMillis, idleTimeoutMillis, validationTimeout);
         } catch (IOException e) {
             System.err.println("la connexion a la base de donnée est echouée " + e.getMessage());
-        } catch (SQLException e) {
-            System.err.println("la connexion a la base de donnée est echouée" + e.getMessage());
+        } catch (NumberFormatException e) {
+            System.err.println("Configuration du pool invalide dans db.properties: " + e.getMessage());
         }
     }
     public static boolean testConnection() {
-        try {
-            return connection != null && !connection.isClosed();
+        if (pool == null) {
+            return false;
+        }
+        try (Connection connection = pool.borrow()) {
+            return !connection.isClosed();
         } catch (SQLException e) {
             System.err.println("Test de connexion échoué: " + e.getMessage());
             return false;
         }
     }
 
-    public static Connection getConnection() {
-        return connection;
+    // La connexion retournee doit etre fermee par l'appelant : close() la rend au pool
+    public static Connection getConnection() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Pool de connexions non initialise, verifiez db.properties");
+        }
+        return pool.borrow();
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
     }
 
     public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Connexion à la base de données fermée");
-            }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la fermeture de la connexion: " + e.getMessage());
+        if (pool != null && !pool.isClosed()) {
+            System.out.println("Statistiques du pool : " + pool.getStats());
+            pool.close();
+            System.out.println("Connexion à la base de données fermée");
         }
     }
 }
@@ -0,0 +1,109 @@
+package util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+// Cache borne en memoire : au-dela de maxSize, l'entree la moins recemment lue est evincee.
+// Une entree plus ancienne que ttlMillis est consideree absente (0 = pas d'expiration).
+// Toutes les operations sont synchronisees : le cache peut etre partage entre threads.
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    // ========== METRIQUES ==========
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("La taille maximale du cache doit etre positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // Ordre d'acces : la tete de la map est l'entree la moins recemment lue
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // ========== READ ==========
+    public synchronized Optional<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || isExpired(entry)) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            missCount++;
+            return Optional.empty();
+        }
+        hitCount++;
+        return Optional.of(entry.value());
+    }
+
+    // ========== WRITE ==========
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void removeIf(Predicate<V> predicate) {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next().value())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    // ========== STATS ==========
+    public synchronized Stats getStats() {
+        return new Stats(maxSize, entries.size(), hitCount, missCount, evictionCount);
+    }
+
+    // ========== HELPER METHODS ==========
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && System.nanoTime() - entry.loadedAt() > ttlNanos;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    public record Stats(
+            int maxSize,
+            int size,
+            long hitCount,
+            long missCount,
+            long evictionCount
+    ) {
+        public double hitRatio() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "Cache{taille=" + size + "/" + maxSize + ", succes=" + hitCount + ", echecs=" + missCount +
+                    ", taux=" + String.format("%.1f", hitRatio() * 100) + "%, evictions=" + evictionCount + "}";
+        }
+    }
+}
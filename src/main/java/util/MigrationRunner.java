@@ -0,0 +1,131 @@
+package util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Applique au demarrage les scripts sql/migrations/V<n>__<description>.sql dans l'ordre des versions.
+// Chaque migration s'execute dans sa propre transaction et est enregistree dans schema_version.
+public class MigrationRunner {
+
+    private static final Path MIGRATIONS_DIR = Path.of("sql", "migrations");
+    private static final Pattern FILE_PATTERN = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    // Verrou consultatif : deux instances demarrant en meme temps n'appliquent pas deux fois la meme migration
+    private static final long LOCK_KEY = 0x42616e6b4775L;
+
+    private MigrationRunner() {
+        throw new UnsupportedOperationException("Impossible d'instancier une classe utilitaire!");
+    }
+
+    // ========== MIGRATE ==========
+    public static boolean migrate() {
+        TreeMap<Integer, Path> migrations;
+        try {
+            migrations = findMigrations();
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Erreur de lecture des migrations : " + e.getMessage());
+            return false;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INTEGER PRIMARY KEY, " +
+                        "description VARCHAR(200) NOT NULL, " +
+                        "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+                stmt.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+
+            try {
+                Set<Integer> applied = findAppliedVersions(conn);
+                for (var entry : migrations.entrySet()) {
+                    if (!applied.contains(entry.getKey())) {
+                        apply(conn, entry.getKey(), entry.getValue());
+                    }
+                }
+                return true;
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Echec de la migration du schema : " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void apply(Connection conn, int version, Path file) throws SQLException, IOException {
+        String sql = Files.readString(file, StandardCharsets.UTF_8);
+        String description = describe(file);
+
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            stmt.execute(sql);
+            record.setInt(1, version);
+            record.setString(2, description);
+            record.executeUpdate();
+            conn.commit();
+            System.out.println("Migration appliquee : V" + version + " - " + description);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("V" + version + " (" + file.getFileName() + ") : " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+    private static TreeMap<Integer, Path> findMigrations() throws IOException {
+        TreeMap<Integer, Path> migrations = new TreeMap<>();
+        if (!Files.isDirectory(MIGRATIONS_DIR)) {
+            return migrations;
+        }
+
+        try (Stream<Path> files = Files.list(MIGRATIONS_DIR)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = FILE_PATTERN.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int version = Integer.parseInt(matcher.group(1));
+                Path previous = migrations.put(version, file);
+                if (previous != null) {
+                    throw new IllegalStateException("Version en double V" + version + " : " +
+                            previous.getFileName() + " et " + file.getFileName());
+                }
+            }
+        }
+        return migrations;
+    }
+
+    private static Set<Integer> findAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    private static String describe(Path file) {
+        Matcher matcher = FILE_PATTERN.matcher(file.getFileName().toString());
+        return matcher.matches() ? matcher.group(2).replace('_', ' ') : file.getFileName().toString();
+    }
+}
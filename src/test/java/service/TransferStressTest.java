@@ -0,0 +1,174 @@
+package service;
+
+import dao.AccountDAO;
+import dao.AccountNumberGenerator;
+import dao.ClientDAO;
+import dao.TransactionDAO;
+import entity.accounts.Account;
+import entity.accounts.CheckingAccount;
+import entity.client.Client;
+import entity.transactions.Transaction;
+import util.DatabaseConnection;
+import util.MigrationRunner;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Test de charge des virements concurrents, a lancer contre une base de test (db.properties).
+// Plusieurs threads virent en boucle, dans les deux sens, entre les memes quelques comptes ; a la fin :
+//   - la somme des soldes est inchangee (aucune mise a jour perdue) ;
+//   - aucun compte n'est sous son decouvert autorise ;
+//   - le solde de chaque compte egale son solde initial plus ses credits moins ses debits enregistres.
+// Les comptes et le client crees sont supprimes a la fin. Code de sortie 1 si une verification echoue.
+public class TransferStressTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 250;
+    private static final double INITIAL_BALANCE = 1_000.00;
+    private static final double OVERDRAFT = 500.00;
+    private static final String LOCATION = "Stress Test";
+
+    public static void main(String[] args) throws Exception {
+        if (!DatabaseConnection.testConnection() || !MigrationRunner.migrate()) {
+            System.err.println("Base de test indisponible");
+            System.exit(2);
+        }
+
+        ClientDAO clientDAO = new ClientDAO();
+        Client client = clientDAO.create(new Client("Stress Test", "stress-" + System.nanoTime() + "@example.com"))
+                .orElseThrow();
+        boolean ok;
+        try {
+            List<Long> ids = createAccounts(client.id());
+            ok = run(ids);
+        } finally {
+            clientDAO.delete(client.id());
+            DatabaseConnection.closeConnection();
+        }
+
+        System.out.println(ok ? "OK" : "ECHEC");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // ========== SETUP ==========
+    private static List<Long> createAccounts(Long clientId) throws SQLException {
+        AccountDAO accountDAO = new AccountDAO();
+        List<Long> ids = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String number = AccountNumberGenerator.getInstance().nextNumber().orElseThrow();
+            Account account = accountDAO.create(new CheckingAccount(number, INITIAL_BALANCE, clientId, OVERDRAFT))
+                    .orElseThrow();
+            ids.add(account.getId());
+        }
+        return ids;
+    }
+
+    // ========== RUN ==========
+    private static boolean run(List<Long> ids) throws Exception {
+        PostingEngine engine = PostingEngine.getInstance();
+        AtomicLong posted = new AtomicLong();
+        AtomicLong refused = new AtomicLong();
+        CountDownLatch startSignal = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    Long from = ids.get(random.nextInt(ids.size()));
+                    Long to = ids.get(random.nextInt(ids.size()));
+                    if (from.equals(to)) {
+                        to = ids.get((ids.indexOf(from) + 1) % ids.size());
+                    }
+                    // Montants assez gros pour que des debits soient refuses par le decouvert
+                    double amount = random.nextInt(1, 60_000) / 100.0;
+                    if (engine.transfer(from, to, amount, LOCATION, LocalDateTime.now()).isPresent()) {
+                        posted.incrementAndGet();
+                    } else {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Virements postes : " + posted.get() + ", refuses : " + refused.get() +
+                " (" + THREADS + " threads, " + elapsedMillis + " ms)");
+        return verify(ids, posted.get());
+    }
+
+    // ========== VERIFY ==========
+    private static boolean verify(List<Long> ids, long posted) {
+        AccountDAO accountDAO = new AccountDAO();
+        TransactionDAO transactionDAO = new TransactionDAO();
+        boolean ok = true;
+        long totalCents = 0;
+        long debitRows = 0;
+
+        for (Long id : ids) {
+            AccountDAO.invalidate(id);
+            long balanceCents = toCents(accountDAO.findById(id).orElseThrow().getBalance());
+            totalCents += balanceCents;
+
+            if (balanceCents < -toCents(OVERDRAFT)) {
+                System.err.println("Compte " + id + " sous son decouvert : " + balanceCents / 100.0);
+                ok = false;
+            }
+
+            // Solde initial + credits - debits enregistres : une mise a jour perdue le ferait diverger
+            BigDecimal expected = BigDecimal.valueOf(INITIAL_BALANCE);
+            for (Transaction transaction : transactionDAO.findByAccountId(id)) {
+                BigDecimal amount = BigDecimal.valueOf(transaction.amount());
+                switch (transaction.type()) {
+                    case DEPOSIT -> expected = expected.add(amount);
+                    case WITHDRAWAL -> expected = expected.subtract(amount);
+                    case TRANSFER -> {
+                        expected = expected.subtract(amount);
+                        debitRows++;
+                    }
+                }
+            }
+            long expectedCents = expected.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+            if (expectedCents != balanceCents) {
+                System.err.println("Compte " + id + " : solde " + balanceCents / 100.0 +
+                        ", attendu d'apres les transactions " + expectedCents / 100.0);
+                ok = false;
+            }
+        }
+
+        long initialCents = toCents(INITIAL_BALANCE) * ids.size();
+        if (totalCents != initialCents) {
+            System.err.println("Somme des soldes modifiee : " + totalCents / 100.0 + " au lieu de " + initialCents / 100.0);
+            ok = false;
+        }
+        if (debitRows != posted) {
+            System.err.println("Debits enregistres : " + debitRows + " pour " + posted + " virements postes");
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+}